@@ -0,0 +1,112 @@
+package benchmarks;
+
+import commons.BasePage;
+import commons.BrowserFactory;
+import commons.GlobalConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import pageUIs.BasePageUI;
+import pageUIs.HomePageUI;
+import pageUIs.LoginPageUI;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// BasePage primitives against a headless browser (BENCHMARK_BROWSER, default hchrome) on the local fixture pages
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BasePageBenchmark {
+
+    public abstract static class FixtureState {
+        FixtureServer fixtureServer;
+        WebDriver driver;
+        BasePage page = BasePage.getBasePageObject();
+
+        void open(String fixturePage) throws IOException {
+            fixtureServer = new FixtureServer().start();
+            driver = BrowserFactory.createDriver(GlobalConstants.getSetting("BENCHMARK_BROWSER", "hchrome"), fixtureServer.getPageUrl(fixturePage));
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            if (driver != null) {
+                BrowserFactory.quitDriver(driver);
+            }
+            if (fixtureServer != null) {
+                fixtureServer.stop();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoginPageState extends FixtureState {
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            open("login.html");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CustomerPageState extends FixtureState {
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            open("customer.html");
+        }
+    }
+
+    @Benchmark
+    public WebElement getWebElement(LoginPageState state) {
+        return state.page.getWebElement(state.driver, LoginPageUI.USER_ID_TEXTBOX);
+    }
+
+    @Benchmark
+    public WebElement waitForElementVisible(LoginPageState state) {
+        return state.page.waitForElementVisible(state.driver, BasePageUI.TEXTBOX_BY_NAME, "uid");
+    }
+
+    @Benchmark
+    public void sendkeyToElement(LoginPageState state) {
+        state.page.sendkeyToElement(state.driver, BasePageUI.TEXTBOX_BY_NAME, "mngr123456", "uid");
+    }
+
+    @Benchmark
+    public WebElement waitAndSendkeyToElement(LoginPageState state) {
+        return state.page.waitAndSendkeyToElement(state.driver, BasePageUI.TEXTBOX_BY_NAME, "mngr123456", "uid");
+    }
+
+    @Benchmark
+    public boolean isElementUndisplayedHidden(LoginPageState state) {
+        return state.page.isElementUndisplayed(state.driver, "//div[@id='hidden-banner']");
+    }
+
+    @Benchmark
+    public boolean isElementUndisplayedAbsent(LoginPageState state) {
+        return state.page.isElementUndisplayed(state.driver, HomePageUI.SUCCESSFUL_MESSAGE);
+    }
+
+    @Benchmark
+    public String getInfoValueByText(CustomerPageState state) {
+        return state.page.getInfoValueByText(state.driver, "Customer Name");
+    }
+
+    @Benchmark
+    public Map<String, String> getAllInfoValues(CustomerPageState state) {
+        return state.page.getAllInfoValues(state.driver, "Customer Name");
+    }
+}
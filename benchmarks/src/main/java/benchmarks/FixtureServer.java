@@ -0,0 +1,81 @@
+package benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+// Serves the static guru99 look-alike pages from /fixtures on the classpath, on a free localhost port
+public class FixtureServer {
+    private final HttpServer server;
+    private final ConcurrentHashMap<String, byte[]> pages = new ConcurrentHashMap<>();
+
+    public FixtureServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new FixtureHandler());
+        server.setExecutor(Executors.newFixedThreadPool(4));
+    }
+
+    public FixtureServer start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String getPageUrl(String page) {
+        return "http://localhost:" + server.getAddress().getPort() + "/" + page;
+    }
+
+    private byte[] loadPage(String page) throws IOException {
+        byte[] content = pages.get(page);
+        if (content != null) {
+            return content;
+        }
+        InputStream input = FixtureServer.class.getResourceAsStream("/fixtures/" + page);
+        if (input == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            content = output.toByteArray();
+        } finally {
+            input.close();
+        }
+        pages.put(page, content);
+        return content;
+    }
+
+    private class FixtureHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String page = exchange.getRequestURI().getPath().substring(1);
+            byte[] content = page.isEmpty() || page.contains("..") ? null : loadPage(page);
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, content.length);
+            OutputStream body = exchange.getResponseBody();
+            body.write(content);
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import commons.BasePage;
+import org.openqa.selenium.By;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import pageUIs.BasePageUI;
+
+import java.util.concurrent.TimeUnit;
+
+// getDynamicXpath + By.xpath as every BasePage action did it, against the cached locator lookup
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocatorBenchmark {
+    private final BasePage page = BasePage.getBasePageObject();
+    private final String[] fieldNames = { "name", "city", "state", "pinno", "telephoneno", "emailid", "password" };
+    private int next;
+
+    @Benchmark
+    public By getDynamicXpathUncached() {
+        String xpath = String.format(BasePageUI.TEXTBOX_BY_NAME, (Object[]) new String[] { nextField() });
+        return By.xpath(xpath);
+    }
+
+    @Benchmark
+    public By getDynamicXpathCached() {
+        return page.getByXpath(BasePageUI.TEXTBOX_BY_NAME, nextField());
+    }
+
+    private String nextField() {
+        next = (next + 1) % fieldNames.length;
+        return fieldNames[next];
+    }
+}
@@ -6,28 +6,47 @@ import org.openqa.selenium.support.Color;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import pageObjects.LoginPageObject;
 import pageObjects.PageGeneratorManager;
 import pageUIs.BasePageUI;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class BasePage {
+    private static final ThreadLocal<String> currentPageObject = new ThreadLocal<>();
+
+    private final String pageObjectName = getClass() == BasePage.class ? "other" : getClass().getSimpleName();
 
     public static BasePage getBasePageObject() {
         return new BasePage();
     }
 
+    // The page object that last located an element or opened a page on this thread, CommandMetrics groups commands by it
+    public static String getCurrentPageObject() {
+        String pageObject = currentPageObject.get();
+        return pageObject != null ? pageObject : "other";
+    }
+
+    private void enterPageObject() {
+        if (GlobalConstants.METRICS) {
+            currentPageObject.set(pageObjectName);
+        }
+    }
+
     // S. Web Browser function
     public void openPageUrl(WebDriver driver, String pageUrl) {
+        enterPageObject();
         driver.get(pageUrl);
     }
 
     public void openPageUrl(WebDriver driver, String pageUrl, String... dynamicValue) {
+        enterPageObject();
         driver.get(pageUrl);
     }
 
@@ -44,15 +63,53 @@ public class BasePage {
     }
 
     public Set<Cookie> getAllCookies(WebDriver driver) {
+        enterPageObject();
         return driver.manage().getCookies();
 
     }
 
+    // One script sets every cookie the page can see; only HttpOnly cookies need their own addCookie round trip
     public void setAllCookies(WebDriver driver, Set<Cookie> allCookies) {
+        enterPageObject();
+        List<Map<String, Object>> scriptCookies = new ArrayList<>();
         for (Cookie cookie : allCookies) {
-            driver.manage().addCookie(cookie);
+            if (cookie.isHttpOnly()) {
+                driver.manage().addCookie(cookie);
+                continue;
+            }
+            Map<String, Object> scriptCookie = new LinkedHashMap<>();
+            scriptCookie.put("name", cookie.getName());
+            scriptCookie.put("value", cookie.getValue());
+            scriptCookie.put("path", cookie.getPath());
+            scriptCookie.put("domain", cookie.getDomain());
+            scriptCookie.put("expiry", cookie.getExpiry() == null ? null : cookie.getExpiry().getTime());
+            scriptCookie.put("secure", cookie.isSecure());
+            scriptCookies.add(scriptCookie);
+        }
+        if (!scriptCookies.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(SET_COOKIES_SCRIPT, scriptCookies);
+        }
+    }
+
+    // storageName is "localStorage" or "sessionStorage"
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getWebStorage(WebDriver driver, String storageName) {
+        enterPageObject();
+        Map<String, String> storage = new LinkedHashMap<>();
+        Object items = ((JavascriptExecutor) driver).executeScript(GET_STORAGE_SCRIPT, storageName);
+        if (items instanceof Map) {
+            for (Map.Entry<String, Object> item : ((Map<String, Object>) items).entrySet()) {
+                storage.put(item.getKey(), String.valueOf(item.getValue()));
+            }
         }
+        return storage;
+    }
 
+    public void setWebStorage(WebDriver driver, String storageName, Map<String, String> items) {
+        enterPageObject();
+        if (items != null && !items.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(SET_STORAGE_SCRIPT, storageName, items);
+        }
     }
 
     protected void backToPage(WebDriver driver) {
@@ -64,12 +121,13 @@ public class BasePage {
     }
 
     public void refreshCurrentPage(WebDriver driver) {
+        enterPageObject();
         driver.navigate().refresh();
     }
 
     // Alert
     protected Alert waitForAlertPresence(WebDriver driver) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, 30);
+        WaitEngine explicitWait = getWaitEngine(driver);
         return explicitWait.until(ExpectedConditions.alertIsPresent());
     }
 
@@ -123,8 +181,14 @@ public class BasePage {
     }
 
     // S. Web Element Function
-    public By getByXpath(String xpathxpathLocator) {
-        return By.xpath(xpathxpathLocator);
+    public By getByXpath(String xpathLocator) {
+        enterPageObject();
+        return LocatorCache.getLocatorCache().getByXpath(xpathLocator);
+    }
+
+    public By getByXpath(String xpathLocator, String... dynamicValues) {
+        enterPageObject();
+        return LocatorCache.getLocatorCache().getByXpath(xpathLocator, dynamicValues);
     }
 //	// xpathLocator: id=/ c.ss=/ x.path=/ name=/ class=
 //	// xpathLocator: ID=/ CSS=/ XPATH=/ NAME=/ CLASS=
@@ -154,15 +218,19 @@ public class BasePage {
     }
 
     public WebElement getWebElement(WebDriver driver, String xpathLocator) {
-        return driver.findElement(By.xpath(xpathLocator));
+        return driver.findElement(getByXpath(xpathLocator));
+    }
+
+    public WebElement getWebElement(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        return driver.findElement(getByXpath(xpathLocator, dynamicValues));
     }
 
     public List<WebElement> getListWebElement(WebDriver driver, String xpathLocator) {
-        return driver.findElements(By.xpath(xpathLocator));
+        return driver.findElements(getByXpath(xpathLocator));
     }
 
     public List<WebElement> getListWebElement(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return driver.findElements(By.xpath(getDynamicXpath(xpathLocator, dynamicValues)));
+        return driver.findElements(getByXpath(xpathLocator, dynamicValues));
     }
 
     public void clickOnElement(WebDriver driver, String xpathLocator) {
@@ -170,7 +238,7 @@ public class BasePage {
     }
 
     public void clickOnElement(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).click();
+        getWebElement(driver, xpathLocator, dynamicValues).click();
     }
 
     public void sendkeyToElement(WebDriver driver, String xpathLocator, String textValue) {
@@ -180,7 +248,7 @@ public class BasePage {
     }
 
     public void sendkeyToElement(WebDriver driver, String xpathLocator, String textValue, String... dynamicValues) {
-        WebElement element = getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues));
+        WebElement element = getWebElement(driver, xpathLocator, dynamicValues);
         element.clear();
         element.sendKeys(textValue);
     }
@@ -194,7 +262,7 @@ public class BasePage {
     // BasePageNopCommerceUI.DYNAMIC_DROPDOWN_BY_NAME, itemText, dropdownName);
     protected void selectItemInDefaultDropdown(WebDriver driver, String xpathLocator, String itemText,
                                                String... dynamicValues) {
-        Select select = new Select(getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)));
+        Select select = new Select(getWebElement(driver, xpathLocator, dynamicValues));
         select.selectByVisibleText(itemText);
     }
 
@@ -204,7 +272,7 @@ public class BasePage {
     }
 
     protected String getSelectedItemDefaultDropdown(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        Select select = new Select(getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)));
+        Select select = new Select(getWebElement(driver, xpathLocator, dynamicValues));
         return select.getFirstSelectedOption().getText();
     }
 
@@ -218,9 +286,9 @@ public class BasePage {
         getWebElement(driver, parentXpath).click();
         sleepInSecond(1);
 
-        WebDriverWait explicitWait = new WebDriverWait(driver, 30);
+        WaitEngine explicitWait = getWaitEngine(driver);
         List<WebElement> allItems = explicitWait
-                .until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath(childXpath)));
+                .until(ExpectedConditions.presenceOfAllElementsLocatedBy(getByXpath(childXpath)));
         for (WebElement item : allItems) {
             if (item.getText().trim().equals(expectedTextItem)) {
                 JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
@@ -248,7 +316,7 @@ public class BasePage {
 
     protected String getElementAttribute(WebDriver driver, String xpathLocator, String attributeName,
                                          String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).getAttribute(attributeName);
+        return getWebElement(driver, xpathLocator, dynamicValues).getAttribute(attributeName);
     }
 
     public String getElementText(WebDriver driver, String xpathLocator) {
@@ -256,7 +324,7 @@ public class BasePage {
     }
 
     public String getElementText(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).getText().trim();
+        return getWebElement(driver, xpathLocator, dynamicValues).getText().trim();
     }
 
     protected String getElementCssvalue(WebDriver driver, String xpathLocator, String propertyName) {
@@ -272,7 +340,7 @@ public class BasePage {
     }
 
     public int getElementSize(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return getListWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).size();
+        return getListWebElement(driver, xpathLocator, dynamicValues).size();
     }
 
     protected void checkToDefaultCheckboxOrRadio(WebDriver driver, String xpathLocator) {
@@ -283,7 +351,7 @@ public class BasePage {
     }
 
     protected void checkToDefaultCheckboxOrRadio(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebElement element = getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues));
+        WebElement element = getWebElement(driver, xpathLocator, dynamicValues);
         if (!element.isSelected()) {
             element.click();
         }
@@ -297,7 +365,7 @@ public class BasePage {
     }
 
     protected void uncheckToDefaultCheckboxOrRadio(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebElement element = getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues));
+        WebElement element = getWebElement(driver, xpathLocator, dynamicValues);
         if (element.isSelected()) {
             element.click();
         }
@@ -312,32 +380,53 @@ public class BasePage {
         }
     }
 
+    // Reads the element state once in the page: not in DOM or not visible counts as undisplayed
     public boolean isElementUndisplayed(WebDriver driver, String xpathLocator) {
-        System.out.println("Start time = " + new Date().toString());
-        overrideGlobalTimeout(driver, GlobalConstants.SHORT_TIMEOUT);
-        List<WebElement> elements = getListWebElement(driver, xpathLocator);
-        overrideGlobalTimeout(driver, GlobalConstants.LONG_TIMEOUT);
-
-        if (elements.size() == 0) {
-            System.out.println("Element not in DOM");
-            System.out.println("End time = " + new Date().toString());
-            return true;
-        } else if (elements.size() > 0 && !elements.get(0).isDisplayed()) {
-            System.out.println("Element in DOM but not visible on UI");
-            System.out.println("End time = " + new Date().toString());
-            return true;
-        } else {
-            System.out.println("Element in DOM and visible on UI");
-            return false;
-        }
+        return !"visible".equals(((JavascriptExecutor) driver).executeScript(ELEMENT_STATE_SCRIPT, xpathLocator));
+    }
+
+    public boolean isElementUndisplayed(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        return isElementUndisplayed(driver, getDynamicXpath(xpathLocator, dynamicValues));
+    }
+
+    // Same check, taken once the DOM has had no mutation for quietMillis (never later than longTimeout)
+    public boolean isElementUndisplayed(WebDriver driver, String xpathLocator, long quietMillis) {
+        Object state = ((JavascriptExecutor) driver).executeAsyncScript(STABLE_ELEMENT_STATE_SCRIPT, xpathLocator, quietMillis,
+                TimeUnit.SECONDS.toMillis(longTimeout));
+        return !"visible".equals(state);
     }
 
+    private static final String ELEMENT_STATE_FUNCTION =
+            "function elementState(xpath) {"
+            + "  var element = document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+            + "  if (!element) { return 'absent'; }"
+            + "  var style = window.getComputedStyle(element);"
+            + "  return element.getClientRects().length && style.visibility !== 'hidden' && style.opacity !== '0' ? 'visible' : 'hidden';"
+            + "}";
+
+    private static final String ELEMENT_STATE_SCRIPT = ELEMENT_STATE_FUNCTION + "return elementState(arguments[0]);";
+
+    private static final String STABLE_ELEMENT_STATE_SCRIPT = ELEMENT_STATE_FUNCTION
+            + "var xpath = arguments[0], quietMillis = arguments[1], done = arguments[arguments.length - 1];"
+            + "var finished = false, quietTimer, observer;"
+            + "function finish() {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  observer.disconnect();"
+            + "  clearTimeout(quietTimer);"
+            + "  done(elementState(xpath));"
+            + "}"
+            + "observer = new MutationObserver(function () { clearTimeout(quietTimer); quietTimer = setTimeout(finish, quietMillis); });"
+            + "observer.observe(document.documentElement, { childList: true, subtree: true, attributes: true, characterData: true });"
+            + "quietTimer = setTimeout(finish, quietMillis);"
+            + "setTimeout(finish, arguments[2]);";
+
     public void overrideGlobalTimeout(WebDriver driver, long timeout) {
         driver.manage().timeouts().implicitlyWait(timeout, TimeUnit.SECONDS);
     }
 
     public boolean isElementDisplayed(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).isDisplayed();
+        return getWebElement(driver, xpathLocator, dynamicValues).isDisplayed();
     }
 
     protected boolean isElementEnabled(WebDriver driver, String xpathLocator) {
@@ -345,7 +434,7 @@ public class BasePage {
     }
 
     protected boolean isElementEnabled(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).isEnabled();
+        return getWebElement(driver, xpathLocator, dynamicValues).isEnabled();
     }
 
     protected boolean isElementSelected(WebDriver driver, String xpathLocator) {
@@ -353,7 +442,7 @@ public class BasePage {
     }
 
     protected boolean isElementSelected(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)).isSelected();
+        return getWebElement(driver, xpathLocator, dynamicValues).isSelected();
     }
 
     protected void switchToFrameIframe(WebDriver driver, String xpathLocator) {
@@ -373,7 +462,7 @@ public class BasePage {
 
     protected void hoverMouseToElement(WebDriver driver, String xpathLocator, String... dynamicValues) {
         Actions action = new Actions(driver);
-        action.moveToElement(getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues))).perform();
+        action.moveToElement(getWebElement(driver, xpathLocator, dynamicValues)).perform();
     }
 
     protected void pressKeyToElement(WebDriver driver, String xpathLocator, Keys key) {
@@ -383,7 +472,7 @@ public class BasePage {
 
     protected void pressKeyToElement(WebDriver driver, String xpathLocator, Keys key, String... dynamicValues) {
         Actions action = new Actions(driver);
-        action.sendKeys(getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)), key).perform();
+        action.sendKeys(getWebElement(driver, xpathLocator, dynamicValues), key).perform();
     }
 
     protected void scrollToBottomPage(WebDriver driver) {
@@ -419,7 +508,7 @@ public class BasePage {
     }
 
     public boolean isJQueryAjaxLoadedSuccess(WebDriver driver) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
+        WaitEngine explicitWait = getWaitEngine(driver);
         final JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
 
         ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
@@ -432,7 +521,7 @@ public class BasePage {
     }
 
     public boolean areJQueryAndJSLoadedSuccess(WebDriver driver) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
+        WaitEngine explicitWait = getWaitEngine(driver);
         final JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
 
         ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
@@ -478,68 +567,145 @@ public class BasePage {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
         boolean status = (boolean) jsExecutor.executeScript(
                 "return arguments[0].complete && typeof arguments[0].naturalWidth != \"undefined\" && arguments[0].naturalWidth > 0",
-                getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues)));
+                getWebElement(driver, xpathLocator, dynamicValues));
         return status;
     }
 
     // Wait
-    public void waitForElementVisible(WebDriver driver, String xpathLocator) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(xpathLocator)));
+    public WebElement waitForElementVisible(WebDriver driver, String xpathLocator) {
+        WaitEngine explicitWait = getWaitEngine(driver);
+        return explicitWait.until(ExpectedConditions.visibilityOfElementLocated(getByXpath(xpathLocator)));
     }
 
-    public void waitForElementVisible(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(
-                ExpectedConditions.visibilityOfElementLocated(By.xpath(getDynamicXpath(xpathLocator, dynamicValues))));
+    public WebElement waitForElementVisible(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        WaitEngine explicitWait = getWaitEngine(driver);
+        return explicitWait.until(
+                ExpectedConditions.visibilityOfElementLocated(getByXpath(xpathLocator, dynamicValues)));
     }
 
     public void waitForAllElementVisible(WebDriver driver, String xpathLocator) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(xpathLocator)));
+        WaitEngine explicitWait = getWaitEngine(driver);
+        explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(getByXpath(xpathLocator)));
     }
 
     public void waitForAllElementVisible(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
+        WaitEngine explicitWait = getWaitEngine(driver);
         explicitWait.until(ExpectedConditions
-                .visibilityOfAllElementsLocatedBy(By.xpath(getDynamicXpath(xpathLocator, dynamicValues))));
+                .visibilityOfAllElementsLocatedBy(getByXpath(xpathLocator, dynamicValues)));
     }
 
     public void waitForElementInvisible(WebDriver driver, String xpathLocator) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(By.xpath(xpathLocator)));
+        WaitEngine explicitWait = getWaitEngine(driver);
+        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByXpath(xpathLocator)));
     }
 
     public void waitForElementInvisible(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
+        WaitEngine explicitWait = getWaitEngine(driver);
         explicitWait.until(ExpectedConditions
-                .invisibilityOfElementLocated(By.xpath(getDynamicXpath(xpathLocator, dynamicValues))));
+                .invisibilityOfElementLocated(getByXpath(xpathLocator, dynamicValues)));
     }
 
     public void waitForAllElementInvisible(WebDriver driver, String xpathLocator) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
+        WaitEngine explicitWait = getWaitEngine(driver);
         explicitWait.until(ExpectedConditions.invisibilityOfAllElements(getListWebElement(driver, xpathLocator)));
     }
 
     public void waitForAllElementInvisible(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
+        WaitEngine explicitWait = getWaitEngine(driver);
         explicitWait.until(ExpectedConditions
-                .invisibilityOfAllElements(getListWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues))));
+                .invisibilityOfAllElements(getListWebElement(driver, xpathLocator, dynamicValues)));
     }
 
-    public void waitForElementClickable(WebDriver driver, String xpathLocator) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.elementToBeClickable(By.xpath(xpathLocator)));
+    public WebElement waitForElementClickable(WebDriver driver, String xpathLocator) {
+        WaitEngine explicitWait = getWaitEngine(driver);
+        return explicitWait.until(ExpectedConditions.elementToBeClickable(getByXpath(xpathLocator)));
     }
 
-    public void waitForElementClickable(WebDriver driver, String xpathLocator, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait
-                .until(ExpectedConditions.elementToBeClickable(By.xpath(getDynamicXpath(xpathLocator, dynamicValues))));
+    public WebElement waitForElementClickable(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        WaitEngine explicitWait = getWaitEngine(driver);
+        return explicitWait
+                .until(ExpectedConditions.elementToBeClickable(getByXpath(xpathLocator, dynamicValues)));
     }
 
     public long longTimeout = GlobalConstants.LONG_TIMEOUT;
 
+    protected WaitEngine getWaitEngine(WebDriver driver) {
+        return WaitEngine.getWaitEngine(driver, longTimeout);
+    }
+
+    // Wait and act: the element found by the wait is the one the action runs on
+    public void waitAndClickOnElement(WebDriver driver, String xpathLocator) {
+        waitForElementClickable(driver, xpathLocator).click();
+    }
+
+    public void waitAndClickOnElement(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        waitForElementClickable(driver, xpathLocator, dynamicValues).click();
+    }
+
+    public WebElement waitAndSendkeyToElement(WebDriver driver, String xpathLocator, String textValue) {
+        return waitAndSendkeyToElement(driver, xpathLocator, textValue, false, new String[0]);
+    }
+
+    public WebElement waitAndSendkeyToElement(WebDriver driver, String xpathLocator, String textValue, String... dynamicValues) {
+        return waitAndSendkeyToElement(driver, xpathLocator, textValue, false, dynamicValues);
+    }
+
+    public String waitAndGetElementText(WebDriver driver, String xpathLocator) {
+        return waitForElementVisible(driver, xpathLocator).getText().trim();
+    }
+
+    public String waitAndGetElementText(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        return waitForElementVisible(driver, xpathLocator, dynamicValues).getText().trim();
+    }
+
+    protected void waitAndCheckToDefaultCheckboxOrRadio(WebDriver driver, String xpathLocator, String... dynamicValues) {
+        WebElement element = waitForElementClickable(driver, xpathLocator, dynamicValues);
+        if (!element.isSelected()) {
+            element.click();
+        }
+    }
+
+    // FAST_INPUT=true waits, clears and types inside one script execution instead of 4+ WebDriver commands
+    private WebElement waitAndSendkeyToElement(WebDriver driver, String xpathLocator, String textValue, boolean removeType,
+                                               String... dynamicValues) {
+        if (GlobalConstants.FAST_INPUT && driver instanceof JavascriptExecutor) {
+            String xpath = getDynamicXpath(xpathLocator, dynamicValues);
+            Object element = ((JavascriptExecutor) driver).executeAsyncScript(WAIT_AND_TYPE_SCRIPT, xpath, textValue,
+                    TimeUnit.SECONDS.toMillis(longTimeout), removeType);
+            if (element instanceof WebElement) {
+                return (WebElement) element;
+            }
+            throw new TimeoutException("Element is not visible after " + longTimeout + "s: " + xpath);
+        }
+
+        WebElement element = waitForElementVisible(driver, xpathLocator, dynamicValues);
+        if (removeType) {
+            ((JavascriptExecutor) driver).executeScript("arguments[0].removeAttribute('type')", element);
+        }
+        element.clear();
+        element.sendKeys(textValue);
+        return element;
+    }
+
+    private static final String WAIT_AND_TYPE_SCRIPT =
+            "var xpath = arguments[0], value = arguments[1], deadline = Date.now() + arguments[2], removeType = arguments[3];"
+            + "var done = arguments[arguments.length - 1];"
+            + "(function poll() {"
+            + "  var element = document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+            + "  if (element && element.getClientRects().length && window.getComputedStyle(element).visibility !== 'hidden') {"
+            + "    if (removeType) { element.removeAttribute('type'); }"
+            + "    element.focus();"
+            + "    element.value = value;"
+            + "    element.dispatchEvent(new Event('input', { bubbles: true }));"
+            + "    element.dispatchEvent(new Event('change', { bubbles: true }));"
+            + "    done(element);"
+            + "  } else if (Date.now() > deadline) {"
+            + "    done(null);"
+            + "  } else {"
+            + "    setTimeout(poll, 50);"
+            + "  }"
+            + "})();";
+
     // BANK GURU99
     public LoginPageObject openLoginPage(WebDriver driver) {
         openPageUrl(driver, GlobalConstants.LOGIN_PAGE);
@@ -547,48 +713,177 @@ public class BasePage {
     }
 
     public void clickOnSubMenuByText(WebDriver driver, String subMenuByText) {
-        waitForElementClickable(driver, BasePageUI.MENU_SUB_BY_TEXT, subMenuByText);
-        clickOnElement(driver, BasePageUI.MENU_SUB_BY_TEXT, subMenuByText);
+        waitAndClickOnElement(driver, BasePageUI.MENU_SUB_BY_TEXT, subMenuByText);
     }
 
     public void inputToTextboxByName(WebDriver driver, String textboxByName, String value) {
-        waitForElementVisible(driver, BasePageUI.TEXTBOX_BY_NAME, textboxByName);
-        sendkeyToElement(driver, BasePageUI.TEXTBOX_BY_NAME, value, textboxByName);
+        waitAndSendkeyToElement(driver, BasePageUI.TEXTBOX_BY_NAME, value, textboxByName);
     }
 
     public boolean isFieldByNameDisplayed(WebDriver driver, String fieldByName) {
-        waitForElementVisible(driver, BasePageUI.TEXTBOX_BY_NAME, fieldByName);
-        return isElementEnabled(driver, BasePageUI.TEXTBOX_BY_NAME, fieldByName);
+        return waitForElementVisible(driver, BasePageUI.TEXTBOX_BY_NAME, fieldByName).isEnabled();
     }
 
     public void checkGenderByValue(WebDriver driver, String genderByValue) {
-        waitForElementClickable(driver, BasePageUI.GENDER_CHECKBOX_BY_VALUE, genderByValue);
-        checkToDefaultCheckboxOrRadio(driver, BasePageUI.GENDER_CHECKBOX_BY_VALUE, genderByValue);
+        waitAndCheckToDefaultCheckboxOrRadio(driver, BasePageUI.GENDER_CHECKBOX_BY_VALUE, genderByValue);
 
     }
 
+    // Sets every field (input, textarea, radio, date picker) by its name in one script; nativeFields are typed with real key events
+    public List<String> fillFormByName(WebDriver driver, Map<String, String> fieldValues, String... nativeFields) {
+        Map<String, String> scriptedValues = new LinkedHashMap<>(fieldValues);
+        for (String nativeField : nativeFields) {
+            scriptedValues.remove(nativeField);
+        }
+
+        List<String> fallbackFields = new ArrayList<>(Arrays.asList(nativeFields));
+        if (!scriptedValues.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            List<String> missingFields = (List<String>) ((JavascriptExecutor) driver).executeAsyncScript(FILL_FORM_SCRIPT,
+                    scriptedValues, TimeUnit.SECONDS.toMillis(longTimeout));
+            if (missingFields == null) {
+                throw new TimeoutException("Form fields are not visible after " + longTimeout + "s: " + scriptedValues.keySet());
+            }
+            fallbackFields.addAll(missingFields);
+        }
+
+        for (String fieldName : fallbackFields) {
+            if (fieldValues.containsKey(fieldName)) {
+                waitAndSendkeyToElement(driver, BasePageUI.FIELD_BY_NAME, fieldValues.get(fieldName), fieldName);
+            }
+        }
+        return fallbackFields;
+    }
+
+    private static final String FILL_FORM_SCRIPT =
+            "var values = arguments[0], deadline = Date.now() + arguments[1], done = arguments[arguments.length - 1];"
+            + "var names = Object.keys(values);"
+            + "function isVisible(element) {"
+            + "  return element.getClientRects().length && window.getComputedStyle(element).visibility !== 'hidden';"
+            + "}"
+            + "function fire(element, type) { element.dispatchEvent(new Event(type, { bubbles: true })); }"
+            + "(function poll() {"
+            + "  var first = document.getElementsByName(names[0])[0];"
+            + "  if (!first || !isVisible(first)) {"
+            + "    if (Date.now() > deadline) { done(null); } else { setTimeout(poll, 50); }"
+            + "    return;"
+            + "  }"
+            + "  var missing = [];"
+            + "  names.forEach(function (name) {"
+            + "    var value = values[name], elements = document.getElementsByName(name), element = elements[0];"
+            + "    if (!element) { missing.push(name); return; }"
+            + "    if (element.type === 'radio' || element.type === 'checkbox') {"
+            + "      element = Array.prototype.filter.call(elements, function (option) { return option.value === value; })[0];"
+            + "      if (!element) { missing.push(name); return; }"
+            + "      if (!element.checked) { element.click(); }"
+            + "      return;"
+            + "    }"
+            + "    if (element.type === 'date') { element.removeAttribute('type'); }"
+            + "    element.focus();"
+            + "    element.value = value;"
+            + "    fire(element, 'input');"
+            + "    fire(element, 'keyup');"
+            + "    fire(element, 'change');"
+            + "    element.blur();"
+            + "  });"
+            + "  done(missing);"
+            + "})();";
+
     public void sendkeyToDatePickerTextbox(WebDriver driver, String xpathLocator, String dateValue,
                                            String... dynamicValues) {
         JavascriptExecutor jsExecutor;
         jsExecutor = (JavascriptExecutor) driver;
-        WebElement dateTextbox = getWebElement(driver, getDynamicXpath(xpathLocator, dynamicValues));
+        WebElement dateTextbox = getWebElement(driver, xpathLocator, dynamicValues);
         jsExecutor.executeScript("arguments[0].removeAttribute('type')", dateTextbox);
         dateTextbox.clear();
         dateTextbox.sendKeys(dateValue);
     }
 
     public void inputToDOBTextboxByName(WebDriver driver, String dobByName, String dateValue) {
-        waitForElementVisible(driver, BasePageUI.TEXTBOX_BY_NAME, dobByName);
-        sendkeyToDatePickerTextbox(driver, BasePageUI.TEXTBOX_BY_NAME, dateValue, dobByName);
+        waitAndSendkeyToElement(driver, BasePageUI.TEXTBOX_BY_NAME, dateValue, true, dobByName);
     }
 
     public void clickOnButtonByName(WebDriver driver, String buttonByName) {
-        waitForElementClickable(driver, BasePageUI.BUTTON_BY_NAME, buttonByName);
-        clickOnElement(driver, BasePageUI.BUTTON_BY_NAME, buttonByName);
+        waitAndClickOnElement(driver, BasePageUI.BUTTON_BY_NAME, buttonByName);
     }
 
     public String getInfoValueByText(WebDriver driver, String valueInfoByText) {
-        waitForElementVisible(driver, BasePageUI.INFO_VALUE_BY_TEXT, valueInfoByText );
-        return getElementText(driver, BasePageUI.INFO_VALUE_BY_TEXT, valueInfoByText);
+        return waitAndGetElementText(driver, BasePageUI.INFO_VALUE_BY_TEXT, valueInfoByText);
+    }
+
+    // Every label -> value pair of a td/following-sibling::td table, read in one script execution once a label
+    // containing each of expectedLabels is visible, so a form that also has label cells is not read by mistake
+    public Map<String, String> getAllInfoValues(WebDriver driver, String... expectedLabels) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> infoValues = (Map<String, String>) ((JavascriptExecutor) driver).executeAsyncScript(READ_TABLE_SCRIPT,
+                BasePageUI.INFO_LABEL_CELLS, TimeUnit.SECONDS.toMillis(longTimeout), Arrays.asList(expectedLabels));
+        if (infoValues == null) {
+            throw new TimeoutException("Info table with " + Arrays.toString(expectedLabels) + " is not visible after " + longTimeout + "s");
+        }
+        return new LinkedHashMap<>(infoValues);
     }
+
+    // Same matching as INFO_VALUE_BY_TEXT: the first label that contains the text
+    public String getInfoValueByText(Map<String, String> infoValues, String valueInfoByText) {
+        if (infoValues.containsKey(valueInfoByText)) {
+            return infoValues.get(valueInfoByText);
+        }
+        for (Map.Entry<String, String> infoValue : infoValues.entrySet()) {
+            if (infoValue.getKey().contains(valueInfoByText)) {
+                return infoValue.getValue();
+            }
+        }
+        throw new NoSuchElementException("No info value labelled '" + valueInfoByText + "' among " + infoValues.keySet());
+    }
+
+    private static final String READ_TABLE_SCRIPT =
+            "var xpath = arguments[0], deadline = Date.now() + arguments[1], expected = arguments[2], done = arguments[arguments.length - 1];"
+            + "(function poll() {"
+            + "  var cells = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "  var values = {}, found = false;"
+            + "  for (var i = 0; i < cells.snapshotLength; i++) {"
+            + "    var label = cells.snapshotItem(i), value = label.nextElementSibling;"
+            + "    var text = label.textContent.trim();"
+            + "    if (text && value && value.tagName === 'TD' && !(text in values) && label.getClientRects().length) {"
+            + "      values[text] = value.innerText.trim();"
+            + "      found = true;"
+            + "    }"
+            + "  }"
+            + "  for (var j = 0; found && j < expected.length; j++) {"
+            + "    found = Object.keys(values).some(function (text) { return text.indexOf(expected[j]) >= 0; });"
+            + "  }"
+            + "  if (found) { done(values); } else if (Date.now() > deadline) { done(null); } else { setTimeout(poll, 50); }"
+            + "})();";
+
+    // arguments[0]: [{name, value, path, domain, expiry (epoch millis), secure}]; a host-only domain is left to the page
+    private static final String SET_COOKIES_SCRIPT =
+            "var cookies = arguments[0];"
+            + "for (var i = 0; i < cookies.length; i++) {"
+            + "  var cookie = cookies[i];"
+            + "  var text = cookie.name + '=' + cookie.value + '; path=' + (cookie.path || '/');"
+            + "  if (cookie.domain && cookie.domain.replace(/^\\./, '') !== location.hostname) {"
+            + "    text += '; domain=' + cookie.domain;"
+            + "  }"
+            + "  if (cookie.expiry) {"
+            + "    text += '; expires=' + new Date(cookie.expiry).toUTCString();"
+            + "  }"
+            + "  if (cookie.secure) {"
+            + "    text += '; secure';"
+            + "  }"
+            + "  document.cookie = text;"
+            + "}";
+
+    private static final String GET_STORAGE_SCRIPT =
+            "var storage = window[arguments[0]], items = {};"
+            + "for (var i = 0; i < storage.length; i++) {"
+            + "  var key = storage.key(i);"
+            + "  items[key] = storage.getItem(key);"
+            + "}"
+            + "return items;";
+
+    private static final String SET_STORAGE_SCRIPT =
+            "var storage = window[arguments[0]], items = arguments[1];"
+            + "for (var key in items) {"
+            + "  storage.setItem(key, items[key]);"
+            + "}";
 }
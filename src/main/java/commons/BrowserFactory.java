@@ -0,0 +1,205 @@
+package commons;
+
+import localBank.LocalBankServer;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.ie.InternetExplorerDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+public class BrowserFactory {
+    private static final Logger log = Logger.getLogger(BrowserFactory.class.getName());
+
+    public static String getBrowserName() {
+        return GlobalConstants.getSetting("BROWSER", "chrome");
+    }
+
+    public static WebDriver createDriver(String browser) {
+        return createDriver(browser, GlobalConstants.LOGIN_PAGE);
+    }
+
+    public static WebDriver createDriver(String browser, String startPageUrl) {
+        // A forked shard uses the local site of its parent run
+        if (GlobalConstants.LOCAL_SITE && GlobalConstants.SHARD_INDEX < 0) {
+            LocalBankServer.startLocalSite();
+        }
+
+        WebDriver driver;
+        try {
+            switch (browser) {
+                case "chrome":
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.CHROME_DRIVER);
+                    driver = newChromeDriver(new ChromeOptions());
+                    break;
+                case "hchrome":
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.CHROME_DRIVER);
+                    ChromeOptions chromeOptions = new ChromeOptions();
+                    chromeOptions.addArguments("headless");
+                    chromeOptions.addArguments("window-size=1920x1080");
+                    driver = newChromeDriver(chromeOptions);
+                    break;
+                case "firefox":
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.GECKO_DRIVER);
+                    System.setProperty(FirefoxDriver.SystemProperty.DRIVER_USE_MARIONETTE, "true");
+                    System.setProperty(FirefoxDriver.SystemProperty.BROWSER_LOGFILE, "/dev/null");
+                    driver = newFirefoxDriver(new FirefoxOptions());
+                    break;
+                case "hfirefox":
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.GECKO_DRIVER);
+                    System.setProperty(FirefoxDriver.SystemProperty.DRIVER_USE_MARIONETTE, "true");
+                    System.setProperty(FirefoxDriver.SystemProperty.BROWSER_LOGFILE, "/dev/null");
+                    FirefoxOptions firefoxOptions = new FirefoxOptions();
+                    firefoxOptions.setHeadless(true);
+                    driver = newFirefoxDriver(firefoxOptions);
+                    break;
+                case "ie":
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.IE_DRIVER);
+                    driver = new InternetExplorerDriver();
+                    break;
+                default:
+                    DriverBinaryResolver.getDriverBinaryResolver().resolve(DriverBinaryResolver.CHROME_DRIVER);
+                    driver = newChromeDriver(new ChromeOptions());
+                    break;
+            }
+        } catch (UnreachableBrowserException e) {
+            driver = new ChromeDriver();
+        } catch (WebDriverException e) {
+            driver = new ChromeDriver();
+        }
+
+        if (GlobalConstants.METRICS) {
+            driver = new EventFiringWebDriver(driver).register(new CommandTimingListener());
+        }
+
+        driver.get(startPageUrl);
+        driver.manage().window().maximize();
+        driver.manage().timeouts().setScriptTimeout(GlobalConstants.LONG_TIMEOUT + GlobalConstants.SHORT_TIMEOUT, TimeUnit.SECONDS);
+        log.info("------------- Started the browser -------------");
+        return driver;
+    }
+
+    // Quits the browser and deletes its session profile, also when the quit fails
+    public static void quitDriver(WebDriver driver) {
+        try {
+            driver.quit();
+            log.info("------------- Closed the browser -------------");
+        } catch (WebDriverException e) {
+            log.warn("Can not close the browser: " + e.getMessage());
+        } finally {
+            BrowserProfiles.getBrowserProfiles().release(driver);
+        }
+    }
+
+    private static WebDriver newChromeDriver(ChromeOptions chromeOptions) {
+        withBrowsingOptions(chromeOptions);
+        if (!GlobalConstants.PROFILE_TEMPLATES) {
+            return startChromeDriver(chromeOptions);
+        }
+        File profile = BrowserProfiles.getBrowserProfiles().newSessionProfile("chrome", BrowserFactory::warmChromeProfile);
+        try {
+            WebDriver driver = startChromeDriver(withChromeProfile(chromeOptions, profile));
+            BrowserProfiles.getBrowserProfiles().attach(driver, profile);
+            return driver;
+        } catch (RuntimeException e) {
+            BrowserProfiles.getBrowserProfiles().discard(profile);
+            throw e;
+        }
+    }
+
+    private static WebDriver newFirefoxDriver(FirefoxOptions firefoxOptions) {
+        withBrowsingOptions(firefoxOptions);
+        if (!GlobalConstants.PROFILE_TEMPLATES) {
+            return startFirefoxDriver(firefoxOptions);
+        }
+        File profile = BrowserProfiles.getBrowserProfiles().newSessionProfile("firefox", BrowserFactory::warmFirefoxProfile);
+        try {
+            WebDriver driver = startFirefoxDriver(firefoxOptions.addArguments("-profile", profile.getAbsolutePath()));
+            BrowserProfiles.getBrowserProfiles().attach(driver, profile);
+            return driver;
+        } catch (RuntimeException e) {
+            BrowserProfiles.getBrowserProfiles().discard(profile);
+            throw e;
+        }
+    }
+
+    private static WebDriver startChromeDriver(ChromeOptions chromeOptions) {
+        if (GlobalConstants.WIRE_CLIENT) {
+            return new RemoteWebDriver(new PooledCommandExecutor(ChromeDriverService.createDefaultService()), chromeOptions);
+        }
+        return new ChromeDriver(chromeOptions);
+    }
+
+    private static WebDriver startFirefoxDriver(FirefoxOptions firefoxOptions) {
+        if (GlobalConstants.WIRE_CLIENT) {
+            return new RemoteWebDriver(new PooledCommandExecutor(GeckoDriverService.createDefaultService()), firefoxOptions);
+        }
+        return new FirefoxDriver(firefoxOptions);
+    }
+
+    // Fast browsing and the filtering proxy apply to every browser, the profile warm-up included
+    private static ChromeOptions withBrowsingOptions(ChromeOptions chromeOptions) {
+        if (GlobalConstants.FAST_BROWSING) {
+            FastBrowsing.apply(chromeOptions);
+        }
+        FilteringProxy proxy = FilteringProxy.getFilteringProxy();
+        if (proxy != null) {
+            chromeOptions.setProxy(proxy.getSeleniumProxy());
+            // Chrome skips the proxy for localhost unless told otherwise, which would leave the local site unrecorded
+            chromeOptions.addArguments("proxy-bypass-list=<-loopback>");
+        }
+        return chromeOptions;
+    }
+
+    private static FirefoxOptions withBrowsingOptions(FirefoxOptions firefoxOptions) {
+        if (GlobalConstants.FAST_BROWSING) {
+            FastBrowsing.apply(firefoxOptions);
+        }
+        FilteringProxy proxy = FilteringProxy.getFilteringProxy();
+        if (proxy != null) {
+            firefoxOptions.setProxy(proxy.getSeleniumProxy());
+            firefoxOptions.addPreference("network.proxy.allow_hijacking_localhost", true);
+        }
+        return firefoxOptions;
+    }
+
+    // The disk cache lives inside the profile, so a copy of the warmed template starts with the cached assets
+    private static ChromeOptions withChromeProfile(ChromeOptions chromeOptions, File profile) {
+        chromeOptions.addArguments("user-data-dir=" + profile.getAbsolutePath());
+        chromeOptions.addArguments("disk-cache-dir=" + new File(profile, "Cache").getAbsolutePath());
+        chromeOptions.addArguments("no-first-run", "no-default-browser-check");
+        return chromeOptions;
+    }
+
+    private static void warmChromeProfile(File template) {
+        ChromeOptions chromeOptions = withBrowsingOptions(new ChromeOptions());
+        chromeOptions.addArguments("headless");
+        warmProfile(startChromeDriver(withChromeProfile(chromeOptions, template)));
+    }
+
+    private static void warmFirefoxProfile(File template) {
+        FirefoxOptions firefoxOptions = withBrowsingOptions(new FirefoxOptions());
+        firefoxOptions.setHeadless(true);
+        warmProfile(startFirefoxDriver(firefoxOptions.addArguments("-profile", template.getAbsolutePath())));
+    }
+
+    // Quitting lets the browser flush its cache and preferences into the template
+    private static void warmProfile(WebDriver driver) {
+        try {
+            driver.get(GlobalConstants.REGISTER_PAGE);
+            driver.get(GlobalConstants.LOGIN_PAGE);
+        } finally {
+            driver.quit();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package commons;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Browser profiles under PROFILE_DIR (PROFILE_DIR/shard-<n> in a forked shard): one template per browser is seeded once per JVM (first-run flags and settings), then
+ * with PROFILE_WARMUP warmed by a browser that visits the bank pages so its disk cache holds the static assets.
+ * Every session gets its own copy of the template (cp --reflink=auto on Linux, cp -c on macOS, so copy-on-write filesystems
+ * share the blocks), which is deleted once the browser quits.
+ */
+public class BrowserProfiles {
+    private static final Logger log = Logger.getLogger(BrowserProfiles.class.getName());
+    // Forked shards keep their profiles apart, each one seeds and cleans only its own folder
+    private static final BrowserProfiles browserProfiles = new BrowserProfiles(GlobalConstants.SHARD_INDEX < 0 ? new File(GlobalConstants.PROFILE_DIR)
+            : new File(GlobalConstants.PROFILE_DIR, "shard-" + GlobalConstants.SHARD_INDEX));
+
+    private static final String CHROME_LOCAL_STATE = "{\"browser\":{\"has_seen_welcome_page\":true},"
+            + "\"user_experience_metrics\":{\"reporting_enabled\":false}}";
+    private static final String CHROME_PREFERENCES = "{\"browser\":{\"check_default_browser\":false,\"has_seen_welcome_page\":true},"
+            + "\"distribution\":{\"skip_first_run_ui\":true,\"suppress_first_run_default_browser_prompt\":true,\"import_bookmarks\":false},"
+            + "\"profile\":{\"exit_type\":\"Normal\",\"exited_cleanly\":true,\"password_manager_enabled\":false,"
+            + "\"default_content_setting_values\":{\"notifications\":2,\"geolocation\":2}},"
+            + "\"credentials_enable_service\":false,\"translate\":{\"enabled\":false},\"sync_promo\":{\"show_on_first_run_allowed\":false}}";
+    private static final String FIREFOX_USER_JS = "user_pref(\"browser.shell.checkDefaultBrowser\", false);\n"
+            + "user_pref(\"browser.startup.homepage_override.mstone\", \"ignore\");\n"
+            + "user_pref(\"browser.aboutwelcome.enabled\", false);\n"
+            + "user_pref(\"startup.homepage_welcome_url\", \"about:blank\");\n"
+            + "user_pref(\"startup.homepage_welcome_url.additional\", \"\");\n"
+            + "user_pref(\"datareporting.policy.dataSubmissionEnabled\", false);\n"
+            + "user_pref(\"datareporting.healthreport.uploadEnabled\", false);\n"
+            + "user_pref(\"toolkit.telemetry.reportingpolicy.firstRun\", false);\n"
+            + "user_pref(\"app.update.auto\", false);\n"
+            + "user_pref(\"app.update.enabled\", false);\n"
+            + "user_pref(\"extensions.update.enabled\", false);\n"
+            + "user_pref(\"browser.safebrowsing.malware.enabled\", false);\n"
+            + "user_pref(\"browser.safebrowsing.phishing.enabled\", false);\n"
+            + "user_pref(\"browser.cache.disk.enable\", true);\n"
+            + "user_pref(\"browser.sessionstore.resume_from_crash\", false);\n"
+            + "user_pref(\"signon.rememberSignons\", false);\n";
+    // Left behind by a running browser, they must not travel with a copy
+    private static final String[] LOCK_FILES = {"SingletonLock", "SingletonSocket", "SingletonCookie", "lock", ".parentlock", "parent.lock"};
+
+    private final File templatesFolder;
+    private final File sessionsFolder;
+    private final Map<String, File> templates = new ConcurrentHashMap<>();
+    private final Map<WebDriver, File> sessionProfiles = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    public static BrowserProfiles getBrowserProfiles() {
+        return browserProfiles;
+    }
+
+    public BrowserProfiles(File profileFolder) {
+        this.templatesFolder = new File(profileFolder, "templates");
+        this.sessionsFolder = new File(profileFolder, "sessions");
+        deleteFolder(sessionsFolder);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                deleteFolder(sessionsFolder);
+            }
+        }));
+    }
+
+    // browser is "chrome" or "firefox"; the warmer gets the template folder once, right after it was seeded
+    public File newSessionProfile(String browser, Consumer<File> warmer) {
+        File template = getTemplate(browser, warmer);
+        File session = new File(sessionsFolder, browser + "-" + sessionCount.incrementAndGet());
+        try {
+            copyFolder(template, session);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not copy the " + browser + " profile template to " + session, e);
+        }
+        return session;
+    }
+
+    public void attach(WebDriver driver, File sessionProfile) {
+        if (sessionProfile != null) {
+            sessionProfiles.put(unwrap(driver), sessionProfile);
+        }
+    }
+
+    // BrowserFactory.quitDriver calls this after driver.quit(), once the browser no longer holds the profile
+    public void release(WebDriver driver) {
+        File sessionProfile = sessionProfiles.remove(unwrap(driver));
+        if (sessionProfile != null) {
+            deleteFolder(sessionProfile);
+        }
+    }
+
+    // For a session profile whose browser never started
+    public void discard(File sessionProfile) {
+        if (sessionProfile != null) {
+            deleteFolder(sessionProfile);
+        }
+    }
+
+    private File getTemplate(String browser, Consumer<File> warmer) {
+        File template = templates.get(browser);
+        if (template == null) {
+            synchronized (templates) {
+                template = templates.get(browser);
+                if (template == null) {
+                    template = new File(templatesFolder, browser);
+                    if (!new File(template, ".warmed").isFile()) {
+                        seedTemplate(browser, template, warmer);
+                    }
+                    templates.put(browser, template);
+                }
+            }
+        }
+        return template;
+    }
+
+    private void seedTemplate(String browser, File template, Consumer<File> warmer) {
+        long start = System.nanoTime();
+        deleteFolder(template);
+        try {
+            if (browser.equals("firefox")) {
+                write(new File(template, "user.js"), FIREFOX_USER_JS);
+            } else {
+                write(new File(template, "Local State"), CHROME_LOCAL_STATE);
+                write(new File(template, "First Run"), "");
+                write(new File(template, "Default" + File.separator + "Preferences"), CHROME_PREFERENCES);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not seed the " + browser + " profile template " + template, e);
+        }
+        if (GlobalConstants.PROFILE_WARMUP && warmer != null) {
+            try {
+                warmer.accept(template);
+            } catch (RuntimeException e) {
+                log.warn("Can not warm the " + browser + " profile template, sessions start from the seeded one: " + e.getMessage());
+            }
+        }
+        for (String lockFile : LOCK_FILES) {
+            new File(template, lockFile).delete();
+        }
+        try {
+            write(new File(template, ".warmed"), String.valueOf(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("Can not mark " + template + " as warmed: " + e.getMessage());
+        }
+        log.info("------------- Built the " + browser + " profile template in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms -------------");
+    }
+
+    private static void copyFolder(File source, File target) throws IOException {
+        target.getParentFile().mkdirs();
+        String os = GlobalConstants.OS_NAME.toLowerCase(Locale.ROOT);
+        String[] command = null;
+        if (os.contains("linux")) {
+            command = new String[]{"cp", "-R", "--reflink=auto", source.getAbsolutePath(), target.getAbsolutePath()};
+        } else if (os.contains("mac")) {
+            command = new String[]{"cp", "-R", "-c", source.getAbsolutePath(), target.getAbsolutePath()};
+        }
+        if (command != null) {
+            try {
+                Process copy = new ProcessBuilder(command).redirectErrorStream(true).start();
+                copy.getInputStream().close();
+                if (copy.waitFor(60, TimeUnit.SECONDS) && copy.exitValue() == 0) {
+                    return;
+                }
+                copy.destroyForcibly();
+            } catch (IOException e) {
+                log.debug("cp is not available, copying the profile in Java: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while copying " + source, e);
+            }
+            deleteFolder(target);
+        }
+        final Path sourcePath = source.toPath();
+        final Path targetPath = target.toPath();
+        Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(targetPath.resolve(sourcePath.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.copy(file, targetPath.resolve(sourcePath.relativize(file)), StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteFolder(File folder) {
+        if (!folder.exists()) {
+            return;
+        }
+        try {
+            Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                    Files.deleteIfExists(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Can not delete the profile " + folder + ": " + e.getMessage());
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static WebDriver unwrap(WebDriver driver) {
+        while (driver instanceof WrapsDriver) {
+            driver = ((WrapsDriver) driver).getWrappedDriver();
+        }
+        return driver;
+    }
+}
@@ -0,0 +1,177 @@
+package commons;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// WebDriver command latencies, tagged by command, page object and locator
+public class CommandMetrics {
+    private static final Logger log = Logger.getLogger(CommandMetrics.class.getName());
+    private static final CommandMetrics runMetrics = new CommandMetrics();
+    private static final ThreadLocal<CommandMetrics> scenarioMetrics = new ThreadLocal<CommandMetrics>() {
+        @Override
+        protected CommandMetrics initialValue() {
+            return new CommandMetrics();
+        }
+    };
+
+    private final ConcurrentHashMap<CommandKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeRunReport();
+            }
+        }));
+    }
+
+    public static CommandMetrics getRunMetrics() {
+        return runMetrics;
+    }
+
+    // Metrics of the scenario running on this thread, reset by the scenario hooks
+    public static CommandMetrics getScenarioMetrics() {
+        return scenarioMetrics.get();
+    }
+
+    public static void resetScenarioMetrics() {
+        scenarioMetrics.remove();
+    }
+
+    public static void recordCommand(String command, String pageObject, String locator, long durationNanos) {
+        CommandKey key = new CommandKey(command, pageObject, locator);
+        runMetrics.histogram(key).record(durationNanos);
+        scenarioMetrics.get().histogram(key).record(durationNanos);
+    }
+
+    private LatencyHistogram histogram(CommandKey key) {
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(key, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    public Map<CommandKey, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public boolean isEmpty() {
+        return histograms.isEmpty();
+    }
+
+    // One line per command/page/locator, slowest p95 first
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("WebDriver command latency (ms)\n");
+        summary.append(String.format(Locale.ROOT, "%-14s %-24s %7s %9s %9s %9s %9s  %s%n", "command", "page", "count", "p50", "p95", "p99", "max", "locator"));
+        for (Map.Entry<CommandKey, LatencyHistogram> entry : sortedBySlowest()) {
+            CommandKey key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            summary.append(String.format(Locale.ROOT, "%-14s %-24s %7d %9.1f %9.1f %9.1f %9.1f  %s%n", key.getCommand(), key.getPageObject(),
+                    histogram.getCount(), histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99), histogram.getMaxMillis(), key.getLocator()));
+        }
+        return summary.toString();
+    }
+
+    public void writeJson(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ArrayNode commands = mapper.createArrayNode();
+        for (Map.Entry<CommandKey, LatencyHistogram> entry : sortedBySlowest()) {
+            LatencyHistogram histogram = entry.getValue();
+            ObjectNode command = commands.addObject();
+            command.put("command", entry.getKey().getCommand());
+            command.put("pageObject", entry.getKey().getPageObject());
+            command.put("locator", entry.getKey().getLocator());
+            command.put("count", histogram.getCount());
+            command.put("meanMs", histogram.getMeanMillis());
+            command.put("p50Ms", histogram.getPercentileMillis(50));
+            command.put("p95Ms", histogram.getPercentileMillis(95));
+            command.put("p99Ms", histogram.getPercentileMillis(99));
+            command.put("maxMs", histogram.getMaxMillis());
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        mapper.writeValue(file, commands);
+    }
+
+    public static void writeRunReport() {
+        if (runMetrics.isEmpty()) {
+            return;
+        }
+        try {
+            runMetrics.writeJson(new File(GlobalConstants.METRICS_REPORT));
+            log.info("WebDriver command latency written to " + GlobalConstants.METRICS_REPORT);
+        } catch (IOException e) {
+            log.warn("Can not write the WebDriver latency report: " + e.getMessage());
+        }
+    }
+
+    private List<Map.Entry<CommandKey, LatencyHistogram>> sortedBySlowest() {
+        List<Map.Entry<CommandKey, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<CommandKey, LatencyHistogram>>() {
+            @Override
+            public int compare(Map.Entry<CommandKey, LatencyHistogram> first, Map.Entry<CommandKey, LatencyHistogram> second) {
+                return Double.compare(second.getValue().getPercentileMillis(95), first.getValue().getPercentileMillis(95));
+            }
+        });
+        return entries;
+    }
+
+    public static final class CommandKey {
+        private final String command;
+        private final String pageObject;
+        private final String locator;
+
+        CommandKey(String command, String pageObject, String locator) {
+            this.command = command;
+            this.pageObject = pageObject;
+            this.locator = locator;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getPageObject() {
+            return pageObject;
+        }
+
+        public String getLocator() {
+            return locator;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CommandKey)) {
+                return false;
+            }
+            CommandKey key = (CommandKey) other;
+            return command.equals(key.command) && pageObject.equals(key.pageObject) && locator.equals(key.locator);
+        }
+
+        @Override
+        public int hashCode() {
+            return (command.hashCode() * 31 + pageObject.hashCode()) * 31 + locator.hashCode();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package commons;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+
+// Times the commands an EventFiringWebDriver reports and hands them to CommandMetrics
+public class CommandTimingListener extends AbstractWebDriverEventListener {
+    private final ThreadLocal<PendingCommand> pendingCommand = new ThreadLocal<>();
+
+    @Override
+    public void beforeNavigateTo(String url, WebDriver driver) {
+        start("get", url);
+    }
+
+    @Override
+    public void afterNavigateTo(String url, WebDriver driver) {
+        finish();
+    }
+
+    @Override
+    public void beforeFindBy(By by, WebElement element, WebDriver driver) {
+        start("findElement", by.toString());
+    }
+
+    @Override
+    public void afterFindBy(By by, WebElement element, WebDriver driver) {
+        finish();
+    }
+
+    @Override
+    public void beforeClickOn(WebElement element, WebDriver driver) {
+        start("click", locatorOf(element));
+    }
+
+    @Override
+    public void afterClickOn(WebElement element, WebDriver driver) {
+        finish();
+    }
+
+    // Fired for both clear() and sendKeys(), keysToSend is null for clear()
+    @Override
+    public void beforeChangeValueOf(WebElement element, WebDriver driver, CharSequence[] keysToSend) {
+        start(keysToSend == null ? "clear" : "sendKeys", locatorOf(element));
+    }
+
+    @Override
+    public void afterChangeValueOf(WebElement element, WebDriver driver, CharSequence[] keysToSend) {
+        finish();
+    }
+
+    @Override
+    public void beforeScript(String script, WebDriver driver) {
+        start("executeScript", "script#" + Integer.toHexString(script.hashCode()));
+    }
+
+    @Override
+    public void afterScript(String script, WebDriver driver) {
+        finish();
+    }
+
+    @Override
+    public void beforeGetText(WebElement element, WebDriver driver) {
+        start("getText", locatorOf(element));
+    }
+
+    @Override
+    public void afterGetText(WebElement element, WebDriver driver, String text) {
+        finish();
+    }
+
+    @Override
+    public void onException(Throwable throwable, WebDriver driver) {
+        PendingCommand command = pendingCommand.get();
+        if (command != null) {
+            command.command = command.command + "!failed";
+        }
+        finish();
+    }
+
+    private void start(String command, String locator) {
+        pendingCommand.set(new PendingCommand(command, locator, BasePage.getCurrentPageObject(), System.nanoTime()));
+    }
+
+    private void finish() {
+        PendingCommand command = pendingCommand.get();
+        if (command == null) {
+            return;
+        }
+        pendingCommand.remove();
+        CommandMetrics.recordCommand(command.command, command.pageObject, command.locator, System.nanoTime() - command.startNanos);
+    }
+
+    // RemoteWebElement.toString() ends with the locator it was found by: "[[driver] -> xpath: //input[@name='uid']]"
+    private static String locatorOf(WebElement element) {
+        String description = String.valueOf(element);
+        int arrow = description.lastIndexOf("-> ");
+        if (arrow < 0) {
+            return "element";
+        }
+        String locator = description.substring(arrow + 3);
+        return locator.endsWith("]") ? locator.substring(0, locator.length() - 1) : locator;
+    }
+
+    private static class PendingCommand {
+        private String command;
+        private final String locator;
+        private final String pageObject;
+        private final long startNanos;
+
+        PendingCommand(String command, String locator, String pageObject, long startNanos) {
+            this.command = command;
+            this.locator = locator;
+            this.pageObject = pageObject;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package commons;
+
+import localBank.LocalBankServer;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Manager accounts registered ahead of time by CREDENTIAL_PROVISIONERS background threads through FastSetup, which posts the
+ * register form straight to access.php, so a login scenario gets its credentials without a browser ever opening the register page.
+ * The provisioners refill up to CREDENTIAL_POOL_SIZE accounts once take() leaves CREDENTIAL_LOW_WATERMARK or fewer; accounts
+ * older than CREDENTIAL_TTL_MINUTES are dropped. take() registers on the caller thread when the pool runs dry.
+ */
+public class CredentialPool {
+    private static final Logger log = Logger.getLogger(CredentialPool.class.getName());
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static CredentialPool credentialPool;
+
+    private final int poolSize;
+    private final int lowWatermark;
+    private final long timeToLiveMillis;
+    private final FastSetup fastSetup = new FastSetup();
+    private final ConcurrentLinkedQueue<ManagerCredentials> credentials = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder starved = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final List<Thread> provisioners = new ArrayList<>();
+
+    public static synchronized CredentialPool getCredentialPool() {
+        if (credentialPool == null) {
+            // A forked shard uses the local site of its parent run
+            if (GlobalConstants.LOCAL_SITE && GlobalConstants.SHARD_INDEX < 0) {
+                LocalBankServer.startLocalSite();
+            }
+            credentialPool = new CredentialPool(GlobalConstants.CREDENTIAL_POOL_SIZE, GlobalConstants.CREDENTIAL_LOW_WATERMARK,
+                    GlobalConstants.CREDENTIAL_PROVISIONERS, TimeUnit.MINUTES.toMillis(GlobalConstants.CREDENTIAL_TTL_MINUTES));
+        }
+        return credentialPool;
+    }
+
+    public CredentialPool(int poolSize, int lowWatermark, int provisionerCount, long timeToLiveMillis) {
+        this.poolSize = Math.max(1, poolSize);
+        this.lowWatermark = Math.min(Math.max(0, lowWatermark), this.poolSize - 1);
+        this.timeToLiveMillis = timeToLiveMillis;
+        for (int i = 0; i < Math.max(1, provisionerCount); i++) {
+            Thread provisioner = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    provision();
+                }
+            }, "credential-provisioner-" + i);
+            provisioner.setDaemon(true);
+            provisioners.add(provisioner);
+        }
+        for (Thread provisioner : provisioners) {
+            provisioner.start();
+        }
+    }
+
+    public ManagerCredentials take() {
+        ManagerCredentials account;
+        while ((account = credentials.poll()) != null) {
+            if (available.decrementAndGet() <= lowWatermark) {
+                wakeProvisioners();
+            }
+            if (!account.isExpired(timeToLiveMillis)) {
+                return account;
+            }
+            expired.increment();
+        }
+        starved.increment();
+        wakeProvisioners();
+        try {
+            return register();
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not register a manager account at " + GlobalConstants.REGISTER_PAGE, e);
+        }
+    }
+
+    public int getAvailableCount() {
+        return available.get();
+    }
+
+    public long getStarvedCount() {
+        return starved.sum();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    private void wakeProvisioners() {
+        for (Thread provisioner : provisioners) {
+            LockSupport.unpark(provisioner);
+        }
+    }
+
+    private void provision() {
+        while (!Thread.currentThread().isInterrupted()) {
+            while (reserve()) {
+                try {
+                    credentials.offer(register());
+                    available.incrementAndGet();
+                } catch (IOException e) {
+                    log.warn("Can not register a manager account at " + GlobalConstants.REGISTER_PAGE + ": " + e.getMessage());
+                    LockSupport.parkNanos(this, RETRY_DELAY_NANOS);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+            LockSupport.park(this);
+        }
+    }
+
+    // Claims one registration while the pool and the registrations in flight stay under the pool size
+    private boolean reserve() {
+        while (true) {
+            int registering = inFlight.get();
+            if (available.get() + registering >= poolSize) {
+                return false;
+            }
+            if (inFlight.compareAndSet(registering, registering + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private ManagerCredentials register() throws IOException {
+        return fastSetup.register(TestDataPool.getTestDataPool().take().getEmailAddress());
+    }
+}
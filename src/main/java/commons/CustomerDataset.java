@@ -0,0 +1,276 @@
+package commons;
+
+import com.github.javafaker.Faker;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Binary customer file for bulk runs: a 32 byte header followed by fixed size records, so record N sits at
+ * HEADER_SIZE + N * RECORD_SIZE and is read through a memory-mapped window without loading the file into heap.
+ * Every field is one length byte and a slot sized by the Guru99 New Customer form limits.
+ * The next record to hand out is kept in "<dataset>.offset", so a stopped run carries on where it ended.
+ *
+ * Generate one with: java -cp ... commons.CustomerDataset customers.dat 1000000 [seed]
+ */
+public class CustomerDataset implements Closeable {
+    private static final Logger log = Logger.getLogger(CustomerDataset.class.getName());
+
+    private static final int MAGIC = 0x47434453; // "GCDS"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // firstName, lastName, address, city, state, pin, phone, email, password
+    private static final int[] FIELD_SLOTS = {12, 12, 40, 25, 4, 6, 10, 30, 20};
+    private static final int RECORD_SIZE = recordSize();
+    private static final long WINDOW_RECORDS = Math.max(1, (64L << 20) / RECORD_SIZE);
+    private static final String[] EMAIL_DOMAINS = {"gmail.com", "yahoo.com", "hotmail.com", "mail.com", "outlook.com"};
+
+    private static CustomerDataset customerDataset;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long recordCount;
+    private final RandomAccessFile offsetFile;
+    private final MappedByteBuffer offsetBuffer;
+    private final ThreadLocal<Window> windows = new ThreadLocal<>();
+
+    // The dataset named by CUSTOMER_DATASET, or null when the run uses the generated test data pool
+    public static synchronized CustomerDataset getCustomerDataset() {
+        if (customerDataset == null && !GlobalConstants.CUSTOMER_DATASET.isEmpty()) {
+            try {
+                customerDataset = new CustomerDataset(new File(GlobalConstants.CUSTOMER_DATASET));
+            } catch (IOException e) {
+                throw new IllegalStateException("Can not open the customer dataset " + GlobalConstants.CUSTOMER_DATASET, e);
+            }
+        }
+        return customerDataset;
+    }
+
+    public CustomerDataset(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header, header.position());
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a customer dataset");
+        }
+        short version = header.getShort();
+        short recordSize = header.getShort();
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            channel.close();
+            throw new IOException(file + " has version " + version + " and record size " + recordSize + ", expected " + VERSION + " and " + RECORD_SIZE);
+        }
+        this.recordCount = header.getLong();
+        this.offsetFile = new RandomAccessFile(new File(file.getPath() + ".offset"), "rw");
+        this.offsetBuffer = offsetFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 8);
+        log.info("Opened " + file + " with " + recordCount + " customer(s), next record " + getNextIndex());
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    public CustomerData get(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        Window window = windows.get();
+        if (window == null || index < window.firstIndex || index >= window.firstIndex + window.count) {
+            window = map(index - index % WINDOW_RECORDS);
+            windows.set(window);
+        }
+        ByteBuffer record = window.buffer.duplicate();
+        record.position((int) ((index - window.firstIndex) * RECORD_SIZE));
+        String[] fields = new String[FIELD_SLOTS.length];
+        for (int i = 0; i < FIELD_SLOTS.length; i++) {
+            fields[i] = readField(record, FIELD_SLOTS[i]);
+        }
+        return new CustomerData(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], fields[7], fields[8]);
+    }
+
+    // Claims the next unused record and moves the saved offset past it; returns null once every record was used.
+    // The offset file is locked as well, so forked shards reading the same dataset never claim the same record.
+    public CustomerData next() {
+        long index;
+        synchronized (offsetBuffer) {
+            FileLock lock = lockOffset();
+            try {
+                index = offsetBuffer.getLong(0);
+                if (index >= recordCount) {
+                    return null;
+                }
+                offsetBuffer.putLong(0, index + 1);
+            } finally {
+                unlockOffset(lock);
+            }
+        }
+        return get(index);
+    }
+
+    public long getNextIndex() {
+        synchronized (offsetBuffer) {
+            return offsetBuffer.getLong(0);
+        }
+    }
+
+    public void resetOffset(long index) {
+        synchronized (offsetBuffer) {
+            FileLock lock = lockOffset();
+            try {
+                offsetBuffer.putLong(0, Math.max(0, Math.min(index, recordCount)));
+            } finally {
+                unlockOffset(lock);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        offsetBuffer.force();
+        offsetFile.close();
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return file + " (" + recordCount + " records, next " + getNextIndex() + ")";
+    }
+
+    // Held by one JVM at a time; threads of this JVM take turns on offsetBuffer first
+    private FileLock lockOffset() {
+        try {
+            return offsetFile.getChannel().lock(0, 8, false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not lock the offset of " + file, e);
+        }
+    }
+
+    private void unlockOffset(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not unlock the offset of " + file, e);
+        }
+    }
+
+    private Window map(long firstIndex) {
+        long count = Math.min(WINDOW_RECORDS, recordCount - firstIndex);
+        try {
+            return new Window(firstIndex, count,
+                    channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstIndex * RECORD_SIZE, count * RECORD_SIZE));
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not map records " + firstIndex + ".." + (firstIndex + count) + " of " + file, e);
+        }
+    }
+
+    // Writes count customers through a small buffer, memory use does not grow with the dataset
+    public static void generate(File file, long count, long seed) throws IOException {
+        Faker faker = new Faker(Locale.US, new Random(seed));
+        String salt = Long.toString(Math.abs(seed % 1679616), 36);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (FileChannel output = new RandomAccessFile(file, "rw").getChannel()) {
+            output.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(count);
+            header.position(0);
+            output.write(header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+            for (long index = 0; index < count; index++) {
+                String firstName = faker.name().firstName();
+                String email = firstName.toLowerCase(Locale.US).replaceAll("[^a-z]", "");
+                email = email.substring(0, Math.min(6, email.length())) + salt + index + "@" + EMAIL_DOMAINS[(int) (index % EMAIL_DOMAINS.length)];
+                String[] fields = {firstName, faker.name().lastName(), faker.address().streetAddress(), faker.address().city(),
+                        faker.address().stateAbbr(), faker.number().digits(6), faker.number().digits(9), email, faker.internet().password()};
+                if (buffer.remaining() < RECORD_SIZE) {
+                    flush(output, buffer);
+                }
+                for (int i = 0; i < FIELD_SLOTS.length; i++) {
+                    writeField(buffer, fields[i], FIELD_SLOTS[i]);
+                }
+            }
+            flush(output, buffer);
+        }
+        new File(file.getPath() + ".offset").delete();
+        log.info("Generated " + count + " customer(s) into " + file);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CustomerDataset <file> <count> [seed]");
+            return;
+        }
+        generate(new File(args[0]), Long.parseLong(args[1]), args.length > 2 ? Long.parseLong(args[2]) : System.currentTimeMillis());
+    }
+
+    private static void flush(FileChannel output, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Longer values are cut on a character boundary so the slot always holds valid UTF-8
+    private static void writeField(ByteBuffer buffer, String value, int slot) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > slot) {
+            length = slot;
+            while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        buffer.put((byte) length);
+        buffer.put(bytes, 0, length);
+        for (int i = length; i < slot; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static String readField(ByteBuffer record, int slot) {
+        int length = record.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        record.position(record.position() + slot - length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int recordSize() {
+        int size = 0;
+        for (int slot : FIELD_SLOTS) {
+            size += 1 + slot;
+        }
+        return size;
+    }
+
+    private static class Window {
+        private final long firstIndex;
+        private final long count;
+        private final MappedByteBuffer buffer;
+
+        Window(long firstIndex, long count, MappedByteBuffer buffer) {
+            this.firstIndex = firstIndex;
+            this.count = count;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -1,55 +1,70 @@
 package commons;
 
-import com.github.javafaker.Faker;
-
 public class DataUtil {
-    private Faker faker;
+    private final CustomerData customer;
 
+    // Next unused record of CUSTOMER_DATASET when one is configured, otherwise a generated customer
     public static DataUtil getData() {
-        return new DataUtil();
+        CustomerDataset customerDataset = CustomerDataset.getCustomerDataset();
+        if (customerDataset != null) {
+            CustomerData customer = customerDataset.next();
+            if (customer == null) {
+                throw new IllegalStateException("Every record of " + customerDataset + " was used, generate a new dataset or reset its offset");
+            }
+            return new DataUtil(customer);
+        }
+        return new DataUtil(TestDataPool.getTestDataPool().take());
+    }
+
+    public static DataUtil getData(long datasetIndex) {
+        CustomerDataset customerDataset = CustomerDataset.getCustomerDataset();
+        if (customerDataset == null) {
+            throw new IllegalStateException("Set CUSTOMER_DATASET to read customers by index");
+        }
+        return new DataUtil(customerDataset.get(datasetIndex));
     }
 
-    public DataUtil() {
-        faker = new Faker();
+    public DataUtil(CustomerData customer) {
+        this.customer = customer;
 
     }
 
     public String getFirstName() {
-        return faker.name().firstName();
+        return customer.getFirstName();
     }
 
     public String getLastName() {
-        return faker.name().lastName();
+        return customer.getLastName();
     }
 
     public String getFullName() {
-        return getFirstName() + " " + getLastName();
+        return customer.getFullName();
     }
 
     public String getEmailAddress() {
-        return faker.internet().emailAddress();
+        return customer.getEmailAddress();
     }
 
     public String getPassword() {
-        return faker.internet().password();
+        return customer.getPassword();
     }
 
     public String getAddress() {
-        return faker.address().streetAddress();
+        return customer.getAddress();
     }
 
     public String getCity() {
-        return faker.address().city();
+        return customer.getCity();
     }
 
     public String getState() {
-        return faker.address().stateAbbr();
+        return customer.getState();
     }
     public String getPINNumber() {
-        return faker.number().digits(6);
+        return customer.getPinNumber();
     }
     public String getNumber() {
-        return faker.number().digits(9);
+        return customer.getPhoneNumber();
     }
 
 }
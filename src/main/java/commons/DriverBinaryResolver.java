@@ -0,0 +1,322 @@
+package commons;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves chromedriver/geckodriver/IEDriverServer from the local cache in DRIVER_CACHE_DIR, once per JVM and driver.
+ * DRIVER_CACHE_DIR/manifest.properties lists every cached binary as
+ *   <driver>.<platform>.<driverVersion>.path     = path relative to the cache folder
+ *   <driver>.<platform>.<driverVersion>.sha256   = checksum checked before use
+ *   <driver>.<platform>.<driverVersion>.browsers = browser major versions it supports, e.g. 114,115
+ * The newest driver that supports the installed browser (or BROWSER_VERSION) wins. When nothing matches, WebDriverManager
+ * downloads the driver once and it is added to the cache, unless DRIVER_OFFLINE is set.
+ *
+ * Add a binary by hand with: java -cp ... commons.DriverBinaryResolver <driver> <binary> <driverVersion> <browserMajors>
+ */
+public class DriverBinaryResolver {
+    private static final Logger log = Logger.getLogger(DriverBinaryResolver.class.getName());
+
+    public static final String CHROME_DRIVER = "chromedriver";
+    public static final String GECKO_DRIVER = "geckodriver";
+    public static final String IE_DRIVER = "IEDriverServer";
+
+    private static final String MANIFEST = "manifest.properties";
+    private static final Pattern VERSION = Pattern.compile("(\\d+)(\\.\\d+)+");
+    private static final DriverBinaryResolver driverBinaryResolver =
+            new DriverBinaryResolver(new File(GlobalConstants.DRIVER_CACHE_DIR), GlobalConstants.DRIVER_OFFLINE);
+
+    private final File cacheFolder;
+    private final boolean offline;
+    private final ConcurrentHashMap<String, File> resolvedDrivers = new ConcurrentHashMap<>();
+
+    public static DriverBinaryResolver getDriverBinaryResolver() {
+        return driverBinaryResolver;
+    }
+
+    public DriverBinaryResolver(File cacheFolder, boolean offline) {
+        this.cacheFolder = cacheFolder;
+        this.offline = offline;
+    }
+
+    // Sets webdriver.*.driver to the resolved binary; later calls for the same driver only set the property again
+    public File resolve(String driver) {
+        File binary = resolvedDrivers.get(driver);
+        if (binary == null) {
+            synchronized (this) {
+                binary = resolvedDrivers.get(driver);
+                if (binary == null) {
+                    binary = resolveOnce(driver);
+                    resolvedDrivers.put(driver, binary);
+                }
+            }
+        }
+        System.setProperty(driverProperty(driver), binary.getAbsolutePath());
+        return binary;
+    }
+
+    private File resolveOnce(String driver) {
+        String platform = platformOf(driver);
+        String browserMajor = GlobalConstants.BROWSER_VERSION.isEmpty() ? detectBrowserMajor(driver) : majorOf(GlobalConstants.BROWSER_VERSION);
+        File cached = findCached(driver, platform, browserMajor);
+        if (cached != null) {
+            log.info("------------- " + driver + " for browser " + (browserMajor == null ? "(unknown version)" : browserMajor) + ": " + cached + " -------------");
+            return cached;
+        }
+        if (offline) {
+            throw new IllegalStateException("No cached " + driver + " for " + platform + " and browser " + browserMajor
+                    + " in " + new File(cacheFolder, MANIFEST) + ", and DRIVER_OFFLINE is set");
+        }
+        return download(driver, platform, browserMajor);
+    }
+
+    private File findCached(String driver, String platform, String browserMajor) {
+        Properties manifest = readManifest();
+        String prefix = driver + "." + platform + ".";
+        String bestVersion = null;
+        for (String key : manifest.stringPropertyNames()) {
+            if (!key.startsWith(prefix) || !key.endsWith(".path")) {
+                continue;
+            }
+            String driverVersion = key.substring(prefix.length(), key.length() - ".path".length());
+            String browsers = manifest.getProperty(prefix + driverVersion + ".browsers", "");
+            boolean compatible = browserMajor == null || Arrays.asList(browsers.replace(" ", "").split(",")).contains(browserMajor);
+            if (compatible && (bestVersion == null || compareVersions(driverVersion, bestVersion) > 0)) {
+                bestVersion = driverVersion;
+            }
+        }
+        if (bestVersion == null) {
+            return null;
+        }
+        File binary = new File(cacheFolder, manifest.getProperty(prefix + bestVersion + ".path"));
+        String expected = manifest.getProperty(prefix + bestVersion + ".sha256", "");
+        if (!binary.isFile()) {
+            log.warn("The manifest lists " + binary + " but the file is missing");
+            return null;
+        }
+        String actual = sha256(binary);
+        if (!actual.equalsIgnoreCase(expected)) {
+            throw new IllegalStateException("Checksum of " + binary + " is " + actual + ", the manifest expects " + expected);
+        }
+        binary.setExecutable(true);
+        return binary;
+    }
+
+    // One WebDriverManager lookup, then the binary goes into the cache so the next run resolves it offline
+    private File download(String driver, String platform, String browserMajor) {
+        WebDriverManager manager = driver.equals(GECKO_DRIVER) ? WebDriverManager.firefoxdriver()
+                : driver.equals(IE_DRIVER) ? WebDriverManager.iedriver().arch32() : WebDriverManager.chromedriver();
+        if (browserMajor != null) {
+            manager.browserVersion(browserMajor);
+        }
+        manager.setup();
+        File downloaded = new File(manager.getDownloadedDriverPath());
+        String driverVersion = manager.getDownloadedDriverVersion();
+        try {
+            return register(driver, platform, downloaded, driverVersion, browserMajor == null ? "" : browserMajor);
+        } catch (IOException e) {
+            log.warn("Can not add " + downloaded + " to the driver cache: " + e.getMessage());
+            return downloaded;
+        }
+    }
+
+    public synchronized File register(String driver, String platform, File binary, String driverVersion, String browserMajors) throws IOException {
+        String relativePath = driver + File.separator + driverVersion + File.separator + platform + File.separator + binary.getName();
+        File target = new File(cacheFolder, relativePath);
+        target.getParentFile().mkdirs();
+        if (!target.getCanonicalFile().equals(binary.getCanonicalFile())) {
+            Files.copy(binary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        target.setExecutable(true);
+
+        Properties manifest = readManifest();
+        String prefix = driver + "." + platform + "." + driverVersion + ".";
+        manifest.setProperty(prefix + "path", relativePath.replace(File.separatorChar, '/'));
+        manifest.setProperty(prefix + "sha256", sha256(target));
+        manifest.setProperty(prefix + "browsers", mergeBrowsers(manifest.getProperty(prefix + "browsers", ""), browserMajors));
+        File manifestFile = new File(cacheFolder, MANIFEST);
+        File temporary = new File(cacheFolder, MANIFEST + ".tmp");
+        try (OutputStream output = new FileOutputStream(temporary)) {
+            manifest.store(output, "Local WebDriver binaries, see commons.DriverBinaryResolver");
+        }
+        Files.move(temporary.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        log.info("Added " + driver + " " + driverVersion + " (" + platform + ") to " + manifestFile);
+        return target;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: DriverBinaryResolver <chromedriver|geckodriver|IEDriverServer> <binary> <driverVersion> <browserMajors>");
+            return;
+        }
+        getDriverBinaryResolver().register(args[0], platformOf(args[0]), new File(args[1]), args[2], args[3]);
+    }
+
+    private Properties readManifest() {
+        Properties manifest = new Properties();
+        File manifestFile = new File(cacheFolder, MANIFEST);
+        if (manifestFile.isFile()) {
+            try (InputStream input = new FileInputStream(manifestFile)) {
+                manifest.load(input);
+            } catch (IOException e) {
+                log.warn("Can not read " + manifestFile + ": " + e.getMessage());
+            }
+        }
+        return manifest;
+    }
+
+    private static String mergeBrowsers(String current, String added) {
+        List<String> browsers = new ArrayList<>();
+        for (String browser : (current + "," + added).replace(" ", "").split(",")) {
+            if (!browser.isEmpty() && !browsers.contains(browser)) {
+                browsers.add(browser);
+            }
+        }
+        return String.join(",", browsers);
+    }
+
+    private static String detectBrowserMajor(String driver) {
+        List<List<String>> commands = new ArrayList<>();
+        boolean windows = GlobalConstants.OS_NAME.toLowerCase(Locale.ROOT).contains("win");
+        boolean mac = GlobalConstants.OS_NAME.toLowerCase(Locale.ROOT).contains("mac");
+        if (driver.equals(CHROME_DRIVER)) {
+            if (windows) {
+                commands.add(Arrays.asList("reg", "query", "HKCU\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+            } else if (mac) {
+                commands.add(Arrays.asList("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+            } else {
+                commands.add(Arrays.asList("google-chrome", "--version"));
+                commands.add(Arrays.asList("chromium", "--version"));
+                commands.add(Arrays.asList("chromium-browser", "--version"));
+            }
+        } else if (driver.equals(GECKO_DRIVER)) {
+            if (windows) {
+                commands.add(Arrays.asList("reg", "query", "HKLM\\Software\\Mozilla\\Mozilla Firefox", "/v", "CurrentVersion"));
+            } else if (mac) {
+                commands.add(Arrays.asList("/Applications/Firefox.app/Contents/MacOS/firefox", "--version"));
+            } else {
+                commands.add(Arrays.asList("firefox", "--version"));
+            }
+        }
+        for (List<String> command : commands) {
+            String version = runForVersion(command);
+            if (version != null) {
+                return majorOf(version);
+            }
+        }
+        return null;
+    }
+
+    private static String runForVersion(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            StringBuilder output = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append('\n');
+                }
+            }
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            Matcher version = VERSION.matcher(output);
+            return process.exitValue() == 0 && version.find() ? version.group() : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String majorOf(String version) {
+        Matcher matcher = Pattern.compile("\\d+").matcher(version);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static String platformOf(String driver) {
+        String os = GlobalConstants.OS_NAME.toLowerCase(Locale.ROOT);
+        String arch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) {
+            return driver.equals(IE_DRIVER) || !arch.contains("64") ? "win32" : "win64";
+        }
+        String bits = arch.contains("aarch64") || arch.contains("arm") ? "arm64" : "64";
+        return (os.contains("mac") ? "mac" : "linux") + bits;
+    }
+
+    private static String driverProperty(String driver) {
+        if (driver.equals(GECKO_DRIVER)) {
+            return "webdriver.gecko.driver";
+        }
+        if (driver.equals(IE_DRIVER)) {
+            return "webdriver.ie.driver";
+        }
+        return "webdriver.chrome.driver";
+    }
+
+    private static int compareVersions(String first, String second) {
+        String[] firstParts = first.split("\\.");
+        String[] secondParts = second.split("\\.");
+        for (int i = 0; i < Math.max(firstParts.length, secondParts.length); i++) {
+            int difference = Long.compare(partOf(firstParts, i), partOf(secondParts, i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    private static long partOf(String[] parts, int index) {
+        if (index >= parts.length) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(parts[index].replaceAll("\\D", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String sha256(File file) {
+        try (InputStream input = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte value : digest.digest()) {
+                hex.append(String.format("%02x", value));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Can not compute the checksum of " + file, e);
+        }
+    }
+}
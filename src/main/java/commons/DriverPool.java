@@ -0,0 +1,164 @@
+package commons;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.UnhandledAlertException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+public class DriverPool {
+    private static final Logger log = Logger.getLogger(DriverPool.class.getName());
+    private static DriverPool driverPool;
+
+    private final String browser;
+    private final int poolSize;
+    private final Semaphore permits;
+    private final BlockingDeque<WebDriver> idleDrivers = new LinkedBlockingDeque<>();
+    private final Set<WebDriver> allDrivers = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<WebDriver> leasedDriver = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> pinnedDriver = new ThreadLocal<>();
+
+    public static synchronized DriverPool getDriverPool() {
+        if (driverPool == null) {
+            driverPool = new DriverPool(BrowserFactory.getBrowserName(), GlobalConstants.POOL_SIZE);
+            Runtime.getRuntime().addShutdownHook(new Thread(new PoolCleanup()));
+            driverPool.prewarm(GlobalConstants.POOL_PREWARM);
+        }
+        return driverPool;
+    }
+
+    public DriverPool(String browser, int poolSize) {
+        this.browser = browser;
+        this.poolSize = Math.max(1, poolSize);
+        this.permits = new Semaphore(this.poolSize, true);
+        log.info("Driver pool for '" + browser + "' with " + this.poolSize + " browser(s)");
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    // Each thread keeps the same browser until it releases it, so step classes of one scenario share it
+    public WebDriver getDriver() {
+        WebDriver driver = leasedDriver.get();
+        if (driver == null) {
+            permits.acquireUninterruptibly();
+            try {
+                driver = idleDrivers.pollFirst();
+                if (driver == null) {
+                    driver = newDriver();
+                }
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            leasedDriver.set(driver);
+        }
+        return driver;
+    }
+
+    public boolean hasDriver() {
+        return leasedDriver.get() != null;
+    }
+
+    // Keeps the thread's browser across releaseDriver() calls until unpinDriver(), e.g. for a virtual user of the load mode
+    public WebDriver pinDriver() {
+        WebDriver driver = getDriver();
+        pinnedDriver.set(Boolean.TRUE);
+        return driver;
+    }
+
+    public void unpinDriver() {
+        pinnedDriver.remove();
+        releaseDriver();
+    }
+
+    // The most recently released browser is leased first, so serial runs keep reusing the same session.
+    // A browser that crashed or lost its session is quit instead, the next lease starts a new one.
+    public void releaseDriver() {
+        WebDriver driver = leasedDriver.get();
+        if (driver == null || pinnedDriver.get() != null) {
+            return;
+        }
+        leasedDriver.remove();
+        try {
+            if (isAlive(driver)) {
+                idleDrivers.offerFirst(driver);
+            } else {
+                log.warn("------------- The browser lost its session, starting a new one on the next lease -------------");
+                discard(driver);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void prewarm(int count) {
+        int warmCount = Math.min(count, poolSize - allDrivers.size());
+        if (warmCount <= 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(warmCount);
+        List<Future<WebDriver>> warming = new ArrayList<>();
+        for (int i = 0; i < warmCount; i++) {
+            warming.add(executor.submit(this::newDriver));
+        }
+        for (Future<WebDriver> future : warming) {
+            try {
+                idleDrivers.offerLast(future.get());
+            } catch (Exception e) {
+                log.warn("Can not pre-warm the browser: " + e.getMessage());
+            }
+        }
+        executor.shutdown();
+        log.info("------------- Pre-warmed " + idleDrivers.size() + " browser(s) -------------");
+    }
+
+    public void quitAll() {
+        for (WebDriver driver : allDrivers) {
+            BrowserFactory.quitDriver(driver);
+        }
+        allDrivers.clear();
+        idleDrivers.clear();
+    }
+
+    // One cheap command; an open alert still means a live session
+    private boolean isAlive(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (UnhandledAlertException e) {
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private void discard(WebDriver driver) {
+        allDrivers.remove(driver);
+        BrowserFactory.quitDriver(driver);
+    }
+
+    private WebDriver newDriver() {
+        WebDriver driver = BrowserFactory.createDriver(browser);
+        allDrivers.add(driver);
+        return driver;
+    }
+
+    private static class PoolCleanup implements Runnable {
+        @Override
+        public void run() {
+            driverPool.quitAll();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package commons;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fast browsing (-DFAST_BROWSING=true): the eager page load strategy, no images (BLOCK_IMAGES) and no requests to the hosts
+ * in the block list (BLOCK_LIST, default blockList.txt on the classpath).
+ * Chrome fails the blocked hosts in its resolver; Firefox routes them through a PAC script to a closed port.
+ * The same list is enforced by commons.FilteringProxy.
+ */
+public class FastBrowsing {
+    private static final Logger log = Logger.getLogger(FastBrowsing.class.getName());
+    private static final String DEFAULT_BLOCK_LIST = "blockList.txt";
+    // Nothing listens on the discard port, so a blocked request fails at once
+    private static final String BLOCKED_PROXY = "PROXY 127.0.0.1:9";
+
+    private static List<String> blockedHosts;
+
+    public static ChromeOptions apply(ChromeOptions chromeOptions) {
+        chromeOptions.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        List<String> hosts = getBlockedHosts();
+        if (!hosts.isEmpty()) {
+            StringBuilder rules = new StringBuilder();
+            for (String host : hosts) {
+                rules.append(rules.length() == 0 ? "" : ", ").append("MAP ").append(host).append(" ~NOTFOUND, MAP *.").append(host).append(" ~NOTFOUND");
+            }
+            chromeOptions.addArguments("host-resolver-rules=" + rules);
+        }
+        if (GlobalConstants.BLOCK_IMAGES) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            chromeOptions.setExperimentalOption("prefs", prefs);
+        }
+        return chromeOptions;
+    }
+
+    public static FirefoxOptions apply(FirefoxOptions firefoxOptions) {
+        firefoxOptions.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        // Behind the filtering proxy the blocked hosts never get through anyway
+        if (!getBlockedHosts().isEmpty() && FilteringProxy.getMode() == FilteringProxy.Mode.OFF) {
+            firefoxOptions.addPreference("network.proxy.type", 2);
+            firefoxOptions.addPreference("network.proxy.autoconfig_url", "data:application/x-ns-proxy-autoconfig;base64,"
+                    + Base64.getEncoder().encodeToString(getProxyAutoConfig("DIRECT").getBytes(StandardCharsets.UTF_8)));
+        }
+        if (GlobalConstants.BLOCK_IMAGES) {
+            firefoxOptions.addPreference("permissions.default.image", 2);
+        }
+        return firefoxOptions;
+    }
+
+    // PAC script that sends the blocked hosts nowhere and everything else to otherwise
+    public static String getProxyAutoConfig(String otherwise) {
+        StringBuilder script = new StringBuilder("var blocked = [");
+        List<String> hosts = getBlockedHosts();
+        for (int i = 0; i < hosts.size(); i++) {
+            script.append(i == 0 ? "\"" : ", \"").append(hosts.get(i)).append('"');
+        }
+        return script.append("];\n")
+                .append("function FindProxyForURL(url, host) {\n")
+                .append("    for (var i = 0; i < blocked.length; i++) {\n")
+                .append("        if (host == blocked[i] || dnsDomainIs(host, \".\" + blocked[i])) return \"").append(BLOCKED_PROXY).append("\";\n")
+                .append("    }\n")
+                .append("    return \"").append(otherwise).append("\";\n")
+                .append("}\n").toString();
+    }
+
+    public static synchronized List<String> getBlockedHosts() {
+        if (blockedHosts == null) {
+            try (InputStream input = GlobalConstants.BLOCK_LIST.isEmpty()
+                    ? FastBrowsing.class.getClassLoader().getResourceAsStream(DEFAULT_BLOCK_LIST)
+                    : new FileInputStream(new File(GlobalConstants.BLOCK_LIST))) {
+                blockedHosts = input == null ? Collections.<String>emptyList() : readHosts(input);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can not read the block list " + GlobalConstants.BLOCK_LIST, e);
+            }
+            log.info("Blocking " + blockedHosts.size() + " host(s)");
+        }
+        return blockedHosts;
+    }
+
+    // True when no browser of this run can reach the Google ad network
+    public static boolean isAdNetworkBlocked() {
+        return (GlobalConstants.FAST_BROWSING || FilteringProxy.getMode() != FilteringProxy.Mode.OFF) && isBlocked("googlesyndication.com");
+    }
+
+    public static boolean isBlocked(String host) {
+        host = host.toLowerCase(Locale.ROOT);
+        for (String blockedHost : getBlockedHosts()) {
+            if (host.equals(blockedHost) || host.endsWith("." + blockedHost)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> readHosts(InputStream input) throws IOException {
+        List<String> hosts = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim().toLowerCase(Locale.ROOT);
+            if (!line.isEmpty() && !line.startsWith("#") && !hosts.contains(line)) {
+                hosts.add(line);
+            }
+        }
+        return Collections.unmodifiableList(hosts);
+    }
+}
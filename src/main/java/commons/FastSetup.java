@@ -0,0 +1,204 @@
+package commons;
+
+import okhttp3.ConnectionPool;
+import okhttp3.CookieJar;
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Preconditions without the browser: register, login and new customer sent as the form posts of those pages, through one
+ * client whose connection pool all setups share. A FastSetup keeps the cookies of one site session and trades them with a
+ * browser through BasePage.getAllCookies/setAllCookies, so a scenario signs in here and only runs the behaviour under test in the UI.
+ */
+public class FastSetup {
+    public static final String MANAGER_HOME_PAGE = GlobalConstants.LOGIN_PAGE + "manager/Managerhomepage.php";
+    private static final String INSERT_CUSTOMER_PAGE = GlobalConstants.LOGIN_PAGE + "manager/insertCustomer.php";
+    private static final OkHttpClient sharedClient = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(GlobalConstants.FAST_SETUP_CONNECTIONS, 5, TimeUnit.MINUTES))
+            .connectTimeout(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS)
+            .readTimeout(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS)
+            .followRedirects(false)
+            .followSslRedirects(false)
+            .build();
+
+    private final List<okhttp3.Cookie> cookies = new ArrayList<>();
+    private final BasePage basePage = BasePage.getBasePageObject();
+    private final OkHttpClient client;
+
+    public FastSetup() {
+        this.client = sharedClient.newBuilder().cookieJar(new CookieJar() {
+            @Override
+            public void saveFromResponse(HttpUrl url, List<okhttp3.Cookie> received) {
+                for (okhttp3.Cookie cookie : received) {
+                    addCookie(cookie);
+                }
+            }
+
+            @Override
+            public List<okhttp3.Cookie> loadForRequest(HttpUrl url) {
+                return findCookies(url);
+            }
+        }).build();
+    }
+
+    // A new manager account, as the register page shows it on the access details page
+    public ManagerCredentials register(String email) throws IOException {
+        String page = post(GlobalConstants.REGISTER_PAGE + "access.php",
+                new FormBody.Builder().add("emailid", email).add("btnLogin", "Submit").build());
+        String userId = findValue(page, "User ID :");
+        String password = findValue(page, "Password :");
+        if (userId == null || password == null) {
+            throw new IOException("No access details after registering " + email + findAlert(page));
+        }
+        return new ManagerCredentials(userId, password, System.currentTimeMillis());
+    }
+
+    // Signs in and checks the Manager home page answers, the session cookie stays in this setup
+    public void login(String userId, String password) throws IOException {
+        String page = post(GlobalConstants.LOGIN_PAGE,
+                new FormBody.Builder().add("uid", userId).add("password", password).add("btnLogin", "LOGIN").build());
+        try (Response response = client.newCall(new Request.Builder().url(MANAGER_HOME_PAGE).build()).execute()) {
+            if (response.code() != 200 || response.body() == null || !response.body().string().contains(userId)) {
+                throw new IOException("Login of " + userId + " did not reach the Manager page" + findAlert(page));
+            }
+        }
+    }
+
+    // Needs a signed in session; gender is "m" or "f", dateOfBirth as the date field posts it (yyyy-MM-dd). Returns the customer ID
+    public String addCustomer(CustomerData customer, String gender, String dateOfBirth) throws IOException {
+        String page = post(INSERT_CUSTOMER_PAGE, new FormBody.Builder()
+                .add("name", customer.getFullName())
+                .add("rad1", gender)
+                .add("dob", dateOfBirth)
+                .add("addr", customer.getAddress())
+                .add("city", customer.getCity())
+                .add("state", customer.getState())
+                .add("pinno", customer.getPinNumber())
+                .add("telephoneno", customer.getPhoneNumber())
+                .add("emailid", customer.getEmailAddress())
+                .add("password", customer.getPassword())
+                .add("sub", "Submit")
+                .build());
+        String customerId = findValue(page, "Customer ID");
+        if (customerId == null) {
+            throw new IOException("No customer ID after adding " + customer.getEmailAddress() + findAlert(page));
+        }
+        return customerId;
+    }
+
+    // Puts this session into the browser, which has to be on the site for the cookies to land there
+    public void toBrowser(WebDriver driver) {
+        if (!driver.getCurrentUrl().startsWith(GlobalConstants.REGISTER_PAGE)) {
+            driver.get(GlobalConstants.LOGIN_PAGE);
+        }
+        basePage.setAllCookies(driver, getSeleniumCookies());
+    }
+
+    // Continues the session of the browser, e.g. to add customers for a manager who signed in through the UI
+    public void fromBrowser(WebDriver driver) {
+        String host = HttpUrl.parse(GlobalConstants.LOGIN_PAGE).host();
+        for (Cookie cookie : basePage.getAllCookies(driver)) {
+            okhttp3.Cookie.Builder builder = new okhttp3.Cookie.Builder().name(cookie.getName()).value(cookie.getValue())
+                    .path(cookie.getPath() == null ? "/" : cookie.getPath());
+            String domain = cookie.getDomain() == null ? host : cookie.getDomain();
+            if (domain.startsWith(".")) {
+                builder.domain(domain.substring(1));
+            } else {
+                builder.hostOnlyDomain(domain);
+            }
+            if (cookie.getExpiry() != null) {
+                builder.expiresAt(cookie.getExpiry().getTime());
+            }
+            if (cookie.isSecure()) {
+                builder.secure();
+            }
+            if (cookie.isHttpOnly()) {
+                builder.httpOnly();
+            }
+            addCookie(builder.build());
+        }
+    }
+
+    // Host-only cookies go without a domain, the browser then keeps them for the page it is on
+    public Set<Cookie> getSeleniumCookies() {
+        Set<Cookie> seleniumCookies = new LinkedHashSet<>();
+        for (okhttp3.Cookie cookie : findCookies(HttpUrl.parse(GlobalConstants.LOGIN_PAGE))) {
+            seleniumCookies.add(new Cookie.Builder(cookie.name(), cookie.value())
+                    .domain(cookie.hostOnly() ? null : cookie.domain())
+                    .path(cookie.path())
+                    .expiresOn(cookie.persistent() ? new Date(cookie.expiresAt()) : null)
+                    .isSecure(cookie.secure())
+                    .isHttpOnly(cookie.httpOnly())
+                    .build());
+        }
+        return seleniumCookies;
+    }
+
+    private String post(String url, RequestBody form) throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(url).post(form).build()).execute()) {
+            if (response.code() >= 400) {
+                throw new IOException(url + " answered " + response.code());
+            }
+            return response.body() == null ? "" : response.body().string();
+        }
+    }
+
+    private synchronized void addCookie(okhttp3.Cookie cookie) {
+        for (Iterator<okhttp3.Cookie> iterator = cookies.iterator(); iterator.hasNext(); ) {
+            okhttp3.Cookie stored = iterator.next();
+            if (stored.name().equals(cookie.name()) && stored.domain().equals(cookie.domain()) && stored.path().equals(cookie.path())) {
+                iterator.remove();
+            }
+        }
+        if (cookie.expiresAt() > System.currentTimeMillis()) {
+            cookies.add(cookie);
+        }
+    }
+
+    private synchronized List<okhttp3.Cookie> findCookies(HttpUrl url) {
+        List<okhttp3.Cookie> matching = new ArrayList<>();
+        for (Iterator<okhttp3.Cookie> iterator = cookies.iterator(); iterator.hasNext(); ) {
+            okhttp3.Cookie cookie = iterator.next();
+            if (cookie.expiresAt() <= System.currentTimeMillis()) {
+                iterator.remove();
+            } else if (cookie.matches(url)) {
+                matching.add(cookie);
+            }
+        }
+        return matching;
+    }
+
+    // The cell that follows the label cell, e.g. <td>User ID :</td><td>mngr123</td>
+    static String findValue(String page, String label) {
+        Matcher matcher = Pattern.compile(">\\s*" + Pattern.quote(label) + "\\s*</td>\\s*<td[^>]*>\\s*([^<]+?)\\s*</td>",
+                Pattern.CASE_INSENSITIVE).matcher(page);
+        return matcher.find() ? unescape(matcher.group(1)) : null;
+    }
+
+    // The site answers a rejected form with an alert() page
+    private static String findAlert(String page) {
+        Matcher matcher = Pattern.compile("alert\\(\\s*['\"]([^'\"]*)['\"]").matcher(page);
+        return matcher.find() ? ": " + matcher.group(1) : "";
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&#39;", "'").replace("&amp;", "&");
+    }
+}
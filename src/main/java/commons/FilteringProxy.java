@@ -0,0 +1,603 @@
+package commons;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.ByteString;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process proxy for the browsers (-DPROXY=filter|record|replay). Requests to the hosts in the FastBrowsing block list are
+ * answered with 204 (HTTP) or 403 (CONNECT) and never leave the machine.
+ * HTTPS goes through a CONNECT tunnel that is only filtered by host; plain HTTP is forwarded by the proxy itself, so in
+ * record mode every response is kept and written to PROXY_ARCHIVE (HAR 1.2) when the JVM exits, and in replay mode the
+ * responses come from that archive in recorded order, with 404 for anything it does not hold and no HTTPS at all.
+ */
+public class FilteringProxy implements Closeable {
+    private static final Logger log = Logger.getLogger(FilteringProxy.class.getName());
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList("connection", "proxy-connection", "keep-alive",
+            "transfer-encoding", "te", "trailer", "upgrade", "proxy-authorization", "proxy-authenticate", "host", "content-length"));
+    private static final int MAX_HEAD_SIZE = 64 * 1024;
+
+    public enum Mode { OFF, FILTER, RECORD, REPLAY }
+
+    private static FilteringProxy filteringProxy;
+
+    private final Mode mode;
+    private final File archive;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final okhttp3.OkHttpClient client;
+    private final List<Exchange> recorded = new ArrayList<>();
+    private final Map<String, List<Exchange>> replayed = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replayPositions = new ConcurrentHashMap<>();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong forwardedCount = new AtomicLong();
+    private final AtomicLong tunnelledCount = new AtomicLong();
+    private final AtomicLong missedCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    public static Mode getMode() {
+        try {
+            return Mode.valueOf(GlobalConstants.PROXY.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("PROXY=" + GlobalConstants.PROXY + " is not one of "
+                    + Arrays.toString(Mode.values()).toLowerCase(Locale.ROOT), e);
+        }
+    }
+
+    // The proxy for this JVM, started on first use; null when PROXY=off
+    public static synchronized FilteringProxy getFilteringProxy() {
+        if (filteringProxy == null && getMode() != Mode.OFF) {
+            try {
+                filteringProxy = new FilteringProxy(GlobalConstants.PROXY_PORT, getMode(), new File(GlobalConstants.PROXY_ARCHIVE));
+            } catch (IOException e) {
+                throw new IllegalStateException("Can not start the filtering proxy on port " + GlobalConstants.PROXY_PORT, e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    filteringProxy.close();
+                }
+            }));
+        }
+        return filteringProxy;
+    }
+
+    public FilteringProxy(int port, Mode mode, File archive) throws IOException {
+        this.mode = mode;
+        this.archive = archive;
+        if (mode == Mode.REPLAY) {
+            loadArchive();
+        }
+        this.client = new okhttp3.OkHttpClient.Builder()
+                .proxy(java.net.Proxy.NO_PROXY)
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .retryOnConnectionFailure(false)
+                .connectTimeout(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS)
+                .readTimeout(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS)
+                .build();
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.connections = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "filtering-proxy-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        connections.execute(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+        log.info("------------- Started the " + mode.name().toLowerCase(Locale.ROOT) + " proxy on port " + getPort() + " -------------");
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public Mode getProxyMode() {
+        return mode;
+    }
+
+    public String getAddress() {
+        return "127.0.0.1:" + getPort();
+    }
+
+    public org.openqa.selenium.Proxy getSeleniumProxy() {
+        org.openqa.selenium.Proxy proxy = new org.openqa.selenium.Proxy();
+        proxy.setProxyType(org.openqa.selenium.Proxy.ProxyType.MANUAL);
+        proxy.setHttpProxy(getAddress());
+        proxy.setSslProxy(getAddress());
+        return proxy;
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Can not close the proxy socket: " + e.getMessage());
+        }
+        connections.shutdownNow();
+        if (mode == Mode.RECORD) {
+            saveArchive();
+        }
+        log.info("Proxy: " + forwardedCount.get() + " forwarded, " + tunnelledCount.get() + " tunnelled, " + blockedCount.get() + " blocked, "
+                + missedCount.get() + " not in the archive");
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handleConnection(socket);
+                    }
+                });
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Proxy accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        try {
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream output = socket.getOutputStream();
+            boolean keepAlive = true;
+            while (keepAlive && running) {
+                String head = readHead(input);
+                if (head == null) {
+                    break;
+                }
+                String[] lines = head.split("\r\n");
+                String[] requestLine = lines[0].split(" ");
+                if (requestLine.length < 3) {
+                    writeResponse(output, 400, "Bad Request", new ArrayList<String[]>(), new byte[0], false);
+                    break;
+                }
+                List<String[]> headers = parseHeaders(lines);
+                if (requestLine[0].equalsIgnoreCase("CONNECT")) {
+                    tunnel(socket, input, output, requestLine[1]);
+                    break;
+                }
+                byte[] body = readBody(input, headers);
+                keepAlive = !requestLine[2].equals("HTTP/1.0") && !"close".equalsIgnoreCase(getHeader(headers, "Connection"))
+                        && !"close".equalsIgnoreCase(getHeader(headers, "Proxy-Connection"));
+                handleRequest(output, requestLine[0], requestLine[1], headers, body, keepAlive);
+            }
+        } catch (IOException e) {
+            log.debug("Proxy connection closed: " + e.getMessage());
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private void handleRequest(OutputStream output, String method, String url, List<String[]> headers, byte[] body, boolean keepAlive) throws IOException {
+        okhttp3.HttpUrl httpUrl = okhttp3.HttpUrl.parse(url);
+        if (httpUrl == null) {
+            writeResponse(output, 400, "Bad Request", new ArrayList<String[]>(), new byte[0], keepAlive);
+            return;
+        }
+        if (FastBrowsing.isBlocked(httpUrl.host())) {
+            blockedCount.incrementAndGet();
+            writeResponse(output, 204, "No Content", new ArrayList<String[]>(), new byte[0], keepAlive);
+            return;
+        }
+        if (mode == Mode.REPLAY) {
+            Exchange exchange = nextReplayed(replayKey(method, url, body));
+            if (exchange == null) {
+                missedCount.incrementAndGet();
+                log.warn("Not in the proxy archive: " + method + " " + url);
+                writeResponse(output, 404, "Not Found", new ArrayList<String[]>(), new byte[0], keepAlive);
+            } else {
+                writeResponse(output, exchange.status, exchange.statusText, exchange.responseHeaders, exchange.responseBody,
+                        keepAlive, method.equalsIgnoreCase("HEAD"));
+            }
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Headers.Builder requestHeaders = new Headers.Builder();
+        for (String[] header : headers) {
+            if (!HOP_BY_HOP_HEADERS.contains(header[0].toLowerCase(Locale.ROOT))) {
+                requestHeaders.add(header[0], header[1]);
+            }
+        }
+        RequestBody requestBody = null;
+        String upperMethod = method.toUpperCase(Locale.ROOT);
+        if (!upperMethod.equals("GET") && !upperMethod.equals("HEAD")
+                && (body.length > 0 || Arrays.asList("POST", "PUT", "PATCH").contains(upperMethod))) {
+            String contentType = getHeader(headers, "Content-Type");
+            requestBody = RequestBody.create(contentType == null ? null : MediaType.parse(contentType), body);
+        }
+        Request request = new Request.Builder().url(httpUrl).headers(requestHeaders.build()).method(method, requestBody).build();
+        Exchange exchange = new Exchange();
+        exchange.startedDateTime = start;
+        exchange.method = method;
+        exchange.url = url;
+        exchange.requestHeaders = headers;
+        exchange.requestBody = body;
+        try (Response response = client.newCall(request).execute()) {
+            exchange.status = response.code();
+            exchange.statusText = response.message();
+            exchange.responseHeaders = new ArrayList<>();
+            for (int i = 0; i < response.headers().size(); i++) {
+                exchange.responseHeaders.add(new String[]{response.headers().name(i), response.headers().value(i)});
+            }
+            exchange.responseBody = response.body() == null ? new byte[0] : response.body().bytes();
+        } catch (IOException e) {
+            log.warn("Proxy can not reach " + url + ": " + e.getMessage());
+            writeResponse(output, 502, "Bad Gateway", new ArrayList<String[]>(), new byte[0], keepAlive);
+            return;
+        }
+        exchange.time = System.currentTimeMillis() - start;
+        forwardedCount.incrementAndGet();
+        if (mode == Mode.RECORD) {
+            synchronized (recorded) {
+                recorded.add(exchange);
+            }
+        }
+        writeResponse(output, exchange.status, exchange.statusText, exchange.responseHeaders, exchange.responseBody,
+                keepAlive, method.equalsIgnoreCase("HEAD"));
+    }
+
+    private void tunnel(Socket socket, InputStream input, OutputStream output, String target) throws IOException {
+        int colon = target.lastIndexOf(':');
+        String host = colon < 0 ? target : target.substring(0, colon);
+        int port = colon < 0 ? 443 : Integer.parseInt(target.substring(colon + 1));
+        if (FastBrowsing.isBlocked(host)) {
+            blockedCount.incrementAndGet();
+            writeStatus(output, "HTTP/1.1 403 Forbidden\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+            return;
+        }
+        if (mode == Mode.REPLAY) {
+            // A tunnel can not be replayed, and replay runs must not touch the network
+            missedCount.incrementAndGet();
+            writeStatus(output, "HTTP/1.1 502 Bad Gateway\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+            return;
+        }
+        final Socket upstream = new Socket();
+        try {
+            upstream.connect(new InetSocketAddress(host, port), (int) TimeUnit.SECONDS.toMillis(GlobalConstants.LONG_TIMEOUT));
+            upstream.setTcpNoDelay(true);
+        } catch (IOException e) {
+            closeQuietly(upstream);
+            writeStatus(output, "HTTP/1.1 502 Bad Gateway\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+            return;
+        }
+        tunnelledCount.incrementAndGet();
+        writeStatus(output, "HTTP/1.1 200 Connection Established\r\n\r\n");
+        final InputStream upstreamInput = upstream.getInputStream();
+        final OutputStream clientOutput = output;
+        connections.execute(new Runnable() {
+            @Override
+            public void run() {
+                pipe(upstreamInput, clientOutput);
+                closeQuietly(upstream);
+            }
+        });
+        pipe(input, upstream.getOutputStream());
+        closeQuietly(upstream);
+    }
+
+    private static void pipe(InputStream from, OutputStream to) {
+        byte[] buffer = new byte[16 * 1024];
+        try {
+            int read;
+            while ((read = from.read(buffer)) >= 0) {
+                to.write(buffer, 0, read);
+                to.flush();
+            }
+        } catch (IOException e) {
+            // One side closed the tunnel
+        }
+    }
+
+    // A request with a body, e.g. a form post, only replays a recording of the same body
+    private static String replayKey(String method, String url, byte[] body) {
+        String key = method.toUpperCase(Locale.ROOT) + " " + url;
+        return body.length == 0 ? key : key + " " + ByteString.of(body).sha256().hex();
+    }
+
+    private Exchange nextReplayed(String key) {
+        List<Exchange> exchanges = replayed.get(key);
+        if (exchanges == null) {
+            return null;
+        }
+        int position = replayPositions.get(key).getAndIncrement();
+        // The last recorded response answers every later repeat
+        return exchanges.get(Math.min(position, exchanges.size() - 1));
+    }
+
+    private static void writeStatus(OutputStream output, String status) throws IOException {
+        output.write(status.getBytes(StandardCharsets.ISO_8859_1));
+        output.flush();
+    }
+
+    private static void writeResponse(OutputStream output, int status, String statusText, List<String[]> headers, byte[] body,
+                                      boolean keepAlive) throws IOException {
+        writeResponse(output, status, statusText, headers, body, keepAlive, false);
+    }
+
+    private static void writeResponse(OutputStream output, int status, String statusText, List<String[]> headers, byte[] body,
+                                      boolean keepAlive, boolean headRequest) throws IOException {
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(statusText).append("\r\n");
+        String contentLength = null;
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase("Content-Length")) {
+                contentLength = header[1];
+            } else if (!HOP_BY_HOP_HEADERS.contains(header[0].toLowerCase(Locale.ROOT))) {
+                head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+            }
+        }
+        boolean noBody = headRequest || status == 204 || status == 304 || status < 200;
+        if (!noBody) {
+            head.append("Content-Length: ").append(body.length).append("\r\n");
+        } else if (contentLength != null) {
+            head.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+        output.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (!noBody) {
+            output.write(body);
+        }
+        output.flush();
+    }
+
+    // The request line and headers, or null when the client closed the connection between requests
+    private static String readHead(InputStream input) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+        int matched = 0;
+        int next;
+        while (matched < 4 && (next = input.read()) >= 0) {
+            head.write(next);
+            matched = (next == '\r' && (matched == 0 || matched == 2)) || (next == '\n' && (matched == 1 || matched == 3)) ? matched + 1 : 0;
+            if (head.size() > MAX_HEAD_SIZE) {
+                throw new IOException("Request head is larger than " + MAX_HEAD_SIZE + " bytes");
+            }
+        }
+        if (matched < 4) {
+            return null;
+        }
+        return new String(head.toByteArray(), 0, head.size() - 4, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] readBody(InputStream input, List<String[]> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(getHeader(headers, "Transfer-Encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            while (true) {
+                String sizeLine = readLine(input);
+                int size = Integer.parseInt(sizeLine.split(";")[0].trim(), 16);
+                if (size == 0) {
+                    while (!readLine(input).isEmpty()) {
+                        // Skip the trailers
+                    }
+                    return body.toByteArray();
+                }
+                body.write(readFully(input, size));
+                readLine(input);
+            }
+        }
+        String contentLength = getHeader(headers, "Content-Length");
+        return contentLength == null ? new byte[0] : readFully(input, Integer.parseInt(contentLength.trim()));
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int next;
+        while ((next = input.read()) >= 0 && next != '\n') {
+            if (next != '\r') {
+                line.append((char) next);
+            }
+        }
+        return line.toString();
+    }
+
+    private static byte[] readFully(InputStream input, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = input.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new IOException("Request body ended after " + offset + " of " + length + " bytes");
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    private static List<String[]> parseHeaders(String[] lines) {
+        List<String[]> headers = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.add(new String[]{lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim()});
+            }
+        }
+        return headers;
+    }
+
+    private static String getHeader(List<String[]> headers, String name) {
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase(name)) {
+                return header[1];
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private void saveArchive() {
+        ObjectNode har = mapper.createObjectNode();
+        ObjectNode harLog = har.putObject("log");
+        harLog.put("version", "1.2");
+        harLog.putObject("creator").put("name", FilteringProxy.class.getName()).put("version", "1.0");
+        ArrayNode entries = harLog.putArray("entries");
+        SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+        iso.setTimeZone(TimeZone.getTimeZone("UTC"));
+        synchronized (recorded) {
+            for (Exchange exchange : recorded) {
+                ObjectNode entry = entries.addObject();
+                entry.put("startedDateTime", iso.format(new Date(exchange.startedDateTime)));
+                entry.put("time", exchange.time);
+                ObjectNode request = entry.putObject("request");
+                request.put("method", exchange.method);
+                request.put("url", exchange.url);
+                request.put("httpVersion", "HTTP/1.1");
+                putHeaders(request.putArray("headers"), exchange.requestHeaders);
+                if (exchange.requestBody.length > 0) {
+                    String requestType = getHeader(exchange.requestHeaders, "Content-Type");
+                    ObjectNode postData = request.putObject("postData");
+                    postData.put("mimeType", requestType == null ? "" : requestType);
+                    putText(postData, exchange.requestBody);
+                }
+                ObjectNode response = entry.putObject("response");
+                response.put("status", exchange.status);
+                response.put("statusText", exchange.statusText);
+                response.put("httpVersion", "HTTP/1.1");
+                putHeaders(response.putArray("headers"), exchange.responseHeaders);
+                ObjectNode content = response.putObject("content");
+                content.put("size", exchange.responseBody.length);
+                String mimeType = getHeader(exchange.responseHeaders, "Content-Type");
+                content.put("mimeType", mimeType == null ? "" : mimeType);
+                content.put("encoding", "base64");
+                content.put("text", Base64.getEncoder().encodeToString(exchange.responseBody));
+            }
+        }
+        try {
+            File parent = archive.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            mapper.writeValue(archive, har);
+            log.info("Recorded " + entries.size() + " response(s) into " + archive);
+        } catch (IOException e) {
+            log.warn("Can not write the proxy archive " + archive, e);
+        }
+    }
+
+    private void loadArchive() throws IOException {
+        JsonNode entries = mapper.readTree(archive).path("log").path("entries");
+        for (JsonNode entry : entries) {
+            Exchange exchange = new Exchange();
+            exchange.method = entry.path("request").path("method").asText();
+            exchange.url = entry.path("request").path("url").asText();
+            exchange.requestBody = readText(entry.path("request").path("postData"));
+            JsonNode response = entry.path("response");
+            exchange.status = response.path("status").asInt();
+            exchange.statusText = response.path("statusText").asText();
+            exchange.responseHeaders = new ArrayList<>();
+            for (JsonNode header : response.path("headers")) {
+                exchange.responseHeaders.add(new String[]{header.path("name").asText(), header.path("value").asText()});
+            }
+            exchange.responseBody = readText(response.path("content"));
+            String key = replayKey(exchange.method, exchange.url, exchange.requestBody);
+            if (!replayed.containsKey(key)) {
+                replayed.put(key, new ArrayList<Exchange>());
+                replayPositions.put(key, new AtomicInteger());
+            }
+            replayed.get(key).add(exchange);
+        }
+        log.info("Loaded " + entries.size() + " response(s) from " + archive);
+    }
+
+    // Plain text when the bytes are valid UTF-8, base64 otherwise (the "encoding" field HAR defines for content)
+    private static void putText(ObjectNode node, byte[] bytes) {
+        try {
+            node.put("text", StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString());
+        } catch (CharacterCodingException e) {
+            node.put("encoding", "base64");
+            node.put("text", Base64.getEncoder().encodeToString(bytes));
+        }
+    }
+
+    private static byte[] readText(JsonNode node) {
+        String text = node.path("text").asText();
+        return "base64".equals(node.path("encoding").asText()) ? Base64.getDecoder().decode(text) : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putHeaders(ArrayNode array, List<String[]> headers) {
+        for (String[] header : headers) {
+            array.addObject().put("name", header[0]).put("value", header[1]);
+        }
+    }
+
+    private static class Exchange {
+        private long startedDateTime;
+        private long time;
+        private String method;
+        private String url;
+        private List<String[]> requestHeaders = new ArrayList<>();
+        private byte[] requestBody = new byte[0];
+        private int status;
+        private String statusText;
+        private List<String[]> responseHeaders = new ArrayList<>();
+        private byte[] responseBody = new byte[0];
+    }
+}
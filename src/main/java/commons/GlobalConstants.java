@@ -3,8 +3,14 @@ package commons;
 import java.io.File;
 
 public class GlobalConstants {
-	public static final String LOGIN_PAGE = "https://demo.guru99.com/v4/";
-	public static final String REGISTER_PAGE = "https://demo.guru99.com/";
+	// -DSITE=local runs against the embedded localBank.LocalBankServer instead of demo.guru99.com
+	public static final boolean LOCAL_SITE = "local".equalsIgnoreCase(getSetting("SITE", "guru99"));
+	public static final int LOCAL_SITE_PORT = Integer.parseInt(getSetting("LOCAL_SITE_PORT", "8099"));
+	public static final int LOCAL_SITE_THREADS = Integer.parseInt(getSetting("LOCAL_SITE_THREADS", "16"));
+	public static final long LOCAL_SITE_LATENCY_MS = Long.parseLong(getSetting("LOCAL_SITE_LATENCY_MS", "0"));
+
+	public static final String REGISTER_PAGE = LOCAL_SITE ? "http://localhost:" + LOCAL_SITE_PORT + "/" : "https://demo.guru99.com/";
+	public static final String LOGIN_PAGE = REGISTER_PAGE + "v4/";
 	
 	public static final String PROJECT_PATH = System.getProperty("user.dir");
 	public static final String JAVA_VERSION = System.getProperty("java.version");
@@ -20,6 +26,107 @@ public class GlobalConstants {
 	
 	public static final long SHORT_TIMEOUT = 5;
 	public static final long LONG_TIMEOUT = 30;
-	public static final long RETRY_TEST_FAIL = 3;
+	// Failed scenarios run again at the end of the run, up to this many more times (0 turns retries off)
+	public static final long RETRY_TEST_FAIL = Long.parseLong(getSetting("RETRY_TEST_FAIL", "3"));
+
+	// Driver pool: -DPOOL_SIZE=4 -DPOOL_PREWARM=2 (or the same names as environment variables)
+	public static final int POOL_SIZE = Integer.parseInt(getSetting("POOL_SIZE", "1"));
+	public static final int POOL_PREWARM = Integer.parseInt(getSetting("POOL_PREWARM", "0"));
+
+	// Parallel runner: scenarios sharing a tag with this prefix run one after another on the same worker
+	public static final int PARALLEL_THREADS = Integer.parseInt(getSetting("PARALLEL_THREADS", String.valueOf(POOL_SIZE)));
+	public static final String EXCLUSIVE_TAG_PREFIX = getSetting("EXCLUSIVE_TAG_PREFIX", "@exclusive_");
+	// A scenario tagged @consumes_<name> runs in the task of the latest scenario before it tagged @produces_<name> (commons.ScenarioState)
+	public static final String PRODUCER_TAG_PREFIX = getSetting("PRODUCER_TAG_PREFIX", "@produces_");
+	public static final String CONSUMER_TAG_PREFIX = getSetting("CONSUMER_TAG_PREFIX", "@consumes_");
+
+	public static final int LOCATOR_CACHE_SIZE = Integer.parseInt(getSetting("LOCATOR_CACHE_SIZE", "1024"));
+
+	public static final boolean FAST_INPUT = Boolean.parseBoolean(getSetting("FAST_INPUT", "false"));
+
+	// WaitEngine polling: starts at WAIT_POLLING_MS and grows by WAIT_BACKOFF up to WAIT_MAX_POLLING_MS
+	public static final long WAIT_POLLING_MS = Long.parseLong(getSetting("WAIT_POLLING_MS", "50"));
+	public static final long WAIT_MAX_POLLING_MS = Long.parseLong(getSetting("WAIT_MAX_POLLING_MS", "500"));
+	public static final double WAIT_BACKOFF = Double.parseDouble(getSetting("WAIT_BACKOFF", "1.5"));
+
+	// -DMETRICS=true times every WebDriver command; the run summary goes to METRICS_REPORT, each scenario also writes its own into the cucumber report
+	public static final boolean METRICS = Boolean.parseBoolean(getSetting("METRICS", "false"));
+	public static final String METRICS_REPORT = getSetting("METRICS_REPORT", "target" + File.separator + "site" + File.separator + "webdriver-latency.json");
+
+	// -DSESSION_SNAPSHOTS=true saves the session cookies of a UI login under SESSION_SNAPSHOT_DIR, restored for scenarios tagged @authenticated_manager
+	public static final boolean SESSION_SNAPSHOTS = Boolean.parseBoolean(getSetting("SESSION_SNAPSHOTS", "false"));
+	public static final String SESSION_SNAPSHOT_DIR = getSetting("SESSION_SNAPSHOT_DIR", PROJECT_PATH + File.separator + "sessionSnapshots");
+	public static final long SESSION_TTL_MINUTES = Long.parseLong(getSetting("SESSION_TTL_MINUTES", "20"));
+
+	// Credential pool (commons.CredentialPool): manager accounts registered in the background over HTTP, consumers of the manager
+	// state take one instead of waiting for the @produces_manager scenario; refilled up to CREDENTIAL_POOL_SIZE once fewer than CREDENTIAL_LOW_WATERMARK are left
+	public static final boolean CREDENTIAL_POOL = Boolean.parseBoolean(getSetting("CREDENTIAL_POOL", "false"));
+	public static final int CREDENTIAL_POOL_SIZE = Integer.parseInt(getSetting("CREDENTIAL_POOL_SIZE", "4"));
+	public static final int CREDENTIAL_LOW_WATERMARK = Integer.parseInt(getSetting("CREDENTIAL_LOW_WATERMARK", "2"));
+	public static final int CREDENTIAL_PROVISIONERS = Integer.parseInt(getSetting("CREDENTIAL_PROVISIONERS", "2"));
+	// demo.guru99.com keeps an account for 20 days, the pool hands out younger ones only
+	public static final long CREDENTIAL_TTL_MINUTES = Long.parseLong(getSetting("CREDENTIAL_TTL_MINUTES", "1440"));
+
+	// Fast setup (commons.FastSetup): preconditions such as the manager login of @authenticated_manager go over HTTP instead of the UI
+	public static final boolean FAST_SETUP = Boolean.parseBoolean(getSetting("FAST_SETUP", "true"));
+	public static final int FAST_SETUP_CONNECTIONS = Integer.parseInt(getSetting("FAST_SETUP_CONNECTIONS", "8"));
+
+	// Test data pool: the generator refills up to TEST_DATA_BATCH customers once fewer than TEST_DATA_LOW_WATERMARK are left
+	public static final int TEST_DATA_BATCH = Integer.parseInt(getSetting("TEST_DATA_BATCH", "64"));
+	public static final int TEST_DATA_LOW_WATERMARK = Integer.parseInt(getSetting("TEST_DATA_LOW_WATERMARK", "16"));
+
+	// Binary customer file (commons.CustomerDataset) to read customers from instead of the test data pool
+	public static final String CUSTOMER_DATASET = getSetting("CUSTOMER_DATASET", "");
+
+	// Load mode (cucumberOptions.LoadCucumber): LOAD_USERS virtual users start evenly over the ramp-up, then loop for the steady state
+	public static final int LOAD_USERS = Integer.parseInt(getSetting("LOAD_USERS", String.valueOf(POOL_SIZE)));
+	public static final long LOAD_RAMP_UP_SECONDS = Long.parseLong(getSetting("LOAD_RAMP_UP_SECONDS", "30"));
+	public static final long LOAD_STEADY_SECONDS = Long.parseLong(getSetting("LOAD_STEADY_SECONDS", "120"));
+	public static final String LOAD_TAGS = getSetting("LOAD_TAGS", "");
+	public static final String LOAD_SETUP_TAGS = getSetting("LOAD_SETUP_TAGS", "@register_new_account,@login_new_account");
+	public static final String LOAD_REPORT = getSetting("LOAD_REPORT", "target" + File.separator + "site" + File.separator + "load-report.json");
+
+	// -DWIRE_CLIENT=true makes Chrome and Firefox talk to their driver server through commons.PooledCommandExecutor (shared
+	// keep-alive connections, pays off with many parallel browsers); off, they are the stock ChromeDriver/FirefoxDriver
+	public static final boolean WIRE_CLIENT = Boolean.parseBoolean(getSetting("WIRE_CLIENT", "false"));
+
+	// Driver binaries come from DRIVER_CACHE_DIR (commons.DriverBinaryResolver); DRIVER_OFFLINE=true never downloads
+	public static final String DRIVER_CACHE_DIR = getSetting("DRIVER_CACHE_DIR", System.getProperty("user.home") + File.separator + ".cache" + File.separator + "guru99-drivers");
+	public static final boolean DRIVER_OFFLINE = Boolean.parseBoolean(getSetting("DRIVER_OFFLINE", "false"));
+	public static final String BROWSER_VERSION = getSetting("BROWSER_VERSION", "");
+
+	// Chrome and Firefox start from a copy of a pre-seeded profile template (commons.BrowserProfiles) kept under PROFILE_DIR
+	public static final boolean PROFILE_TEMPLATES = Boolean.parseBoolean(getSetting("PROFILE_TEMPLATES", "true"));
+	public static final String PROFILE_DIR = getSetting("PROFILE_DIR", "target" + File.separator + "browser-profiles");
+	// The template is warmed by a headless visit of the bank pages; only against the local site unless PROFILE_WARMUP=true
+	public static final boolean PROFILE_WARMUP = Boolean.parseBoolean(getSetting("PROFILE_WARMUP", String.valueOf(LOCAL_SITE)));
+
+	// Fast browsing (commons.FastBrowsing): eager page loads, no images, no requests to the hosts in BLOCK_LIST (a file, default blockList.txt)
+	public static final boolean FAST_BROWSING = Boolean.parseBoolean(getSetting("FAST_BROWSING", "false"));
+	public static final boolean BLOCK_IMAGES = Boolean.parseBoolean(getSetting("BLOCK_IMAGES", "true"));
+	public static final String BLOCK_LIST = getSetting("BLOCK_LIST", "");
+
+	// In-process proxy for the browsers (commons.FilteringProxy): off, filter, record or replay; PROXY_PORT=0 picks a free port
+	public static final String PROXY = getSetting("PROXY", "off");
+	public static final int PROXY_PORT = Integer.parseInt(getSetting("PROXY_PORT", "0"));
+	public static final String PROXY_ARCHIVE = getSetting("PROXY_ARCHIVE", "target" + File.separator + "proxy-archive.har");
+
+	// Sharding (cucumberOptions.ShardPlanner): SHARDS forked JVMs balanced on the durations in the SHARD_HISTORY reports (files or folders)
+	public static final int SHARDS = Integer.parseInt(getSetting("SHARDS", "1"));
+	public static final String SHARD_HISTORY = getSetting("SHARD_HISTORY", "target" + File.separator + "shard-history");
+	public static final int SHARD_HISTORY_KEEP = Integer.parseInt(getSetting("SHARD_HISTORY_KEEP", "5"));
+	public static final String SHARD_JVM_ARGS = getSetting("SHARD_JVM_ARGS", "");
+	// Set by the parent run for each forked shard
+	public static final int SHARD_INDEX = Integer.parseInt(getSetting("SHARD_INDEX", "-1"));
+	public static final String SHARD_PLAN = getSetting("SHARD_PLAN", "");
+	public static final String SHARD_REPORT = getSetting("SHARD_REPORT", "");
+
+	public static String getSetting(String name, String defaultValue) {
+		String value = System.getProperty(name);
+		if (value == null) {
+			value = System.getenv(name);
+		}
+		return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+	}
 
 }
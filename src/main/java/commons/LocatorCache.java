@@ -0,0 +1,111 @@
+package commons;
+
+import org.openqa.selenium.By;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LocatorCache {
+    private static final LocatorCache locatorCache = new LocatorCache(GlobalConstants.LOCATOR_CACHE_SIZE);
+
+    private final int maxSize;
+    private final ConcurrentHashMap<LocatorKey, By> locators = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<LocatorKey> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public static LocatorCache getLocatorCache() {
+        return locatorCache;
+    }
+
+    public LocatorCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public By getByXpath(String xpathLocator, String... dynamicValues) {
+        LocatorKey key = new LocatorKey(xpathLocator, dynamicValues);
+        By by = locators.get(key);
+        if (by != null) {
+            hits.increment();
+            return by;
+        }
+        misses.increment();
+        by = By.xpath(dynamicValues.length == 0 ? xpathLocator : String.format(xpathLocator, (Object[]) dynamicValues));
+        if (locators.putIfAbsent(key, by) == null) {
+            insertionOrder.offer(key);
+            evictOverflow();
+        }
+        return by;
+    }
+
+    // Oldest locators go first once the cache is full
+    private void evictOverflow() {
+        while (locators.size() > maxSize) {
+            LocatorKey oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (locators.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return locators.size();
+    }
+
+    public void clear() {
+        locators.clear();
+        insertionOrder.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "LocatorCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private static final class LocatorKey {
+        private final String xpathLocator;
+        private final String[] dynamicValues;
+        private final int hash;
+
+        LocatorKey(String xpathLocator, String[] dynamicValues) {
+            this.xpathLocator = xpathLocator;
+            this.dynamicValues = dynamicValues;
+            this.hash = 31 * xpathLocator.hashCode() + Arrays.hashCode(dynamicValues);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof LocatorKey)) {
+                return false;
+            }
+            LocatorKey key = (LocatorKey) other;
+            return hash == key.hash && xpathLocator.equals(key.xpathLocator) && Arrays.equals(dynamicValues, key.dynamicValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package commons;
+
+public class ManagerCredentials {
+    private final String userId;
+    private final String password;
+    private final long createdAtMillis;
+
+    public ManagerCredentials(String userId, String password, long createdAtMillis) {
+        this.userId = userId;
+        this.password = password;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public boolean isExpired(long timeToLiveMillis) {
+        return System.currentTimeMillis() - createdAtMillis >= timeToLiveMillis;
+    }
+}
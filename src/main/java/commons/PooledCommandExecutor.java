@@ -0,0 +1,55 @@
+package commons;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandInfo;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.ErrorCodes;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Collections;
+
+// Like Selenium's DriverCommandExecutor (starts the driver server with the session, stops it on quit), but over the
+// WireClientFactory connections, and every round trip is timed into CommandMetrics as page "(wire)"
+public class PooledCommandExecutor extends HttpCommandExecutor {
+    private static final String WIRE = "(wire)";
+
+    private final DriverService service;
+
+    public PooledCommandExecutor(DriverService service) {
+        super(Collections.<String, CommandInfo>emptyMap(), service.getUrl(), WireClientFactory.getWireClientFactory());
+        this.service = service;
+    }
+
+    @Override
+    public Response execute(Command command) throws IOException {
+        boolean newSession = DriverCommand.NEW_SESSION.equals(command.getName());
+        if (newSession) {
+            service.start();
+        }
+        long start = System.nanoTime();
+        boolean sessionStarted = false;
+        try {
+            Response response = super.execute(command);
+            sessionStarted = newSession && (response.getStatus() == null || response.getStatus() == ErrorCodes.SUCCESS);
+            return response;
+        } catch (ConnectException e) {
+            if (!service.isRunning()) {
+                throw new WebDriverException("The driver server has unexpectedly died!", e);
+            }
+            throw e;
+        } finally {
+            if (GlobalConstants.METRICS) {
+                CommandMetrics.recordCommand(command.getName(), WIRE, "", System.nanoTime() - start);
+            }
+            // A session that did not start leaves no one to quit the driver server
+            if (DriverCommand.QUIT.equals(command.getName()) || (newSession && !sessionStarted)) {
+                service.stop();
+            }
+        }
+    }
+}
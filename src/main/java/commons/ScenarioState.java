@@ -0,0 +1,78 @@
+package commons;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Values that one scenario produces for the scenarios that consume them, e.g. the manager account created by
+ * @register_new_account and used by @login_new_account. Values live in a chain: the runner binds the thread to the chain of
+ * the task it runs (producer and consumers, declared with @produces_<name> / @consumes_<name>), so concurrent chains and
+ * retried consumers each see their own values. An unbound thread is a chain of its own.
+ * With CREDENTIAL_POOL the manager is provided: a chain without one takes an account from the CredentialPool.
+ */
+public class ScenarioState {
+    public static final String MANAGER = "manager";
+    public static final String MANAGER_USER_ID = "manager.userID";
+    public static final String MANAGER_PASSWORD = "manager.password";
+
+    private static final Map<String, Map<String, Object>> chains = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> boundChain = new ThreadLocal<>();
+
+    public static void bind(String chainId) {
+        boundChain.set(chainId);
+    }
+
+    public static void unbind() {
+        boundChain.remove();
+    }
+
+    public static String getChainId() {
+        String chainId = boundChain.get();
+        return chainId != null ? chainId : "thread-" + Thread.currentThread().getId();
+    }
+
+    public static void put(String name, Object value) {
+        chains.computeIfAbsent(getChainId(), new Function<String, Map<String, Object>>() {
+            @Override
+            public Map<String, Object> apply(String chainId) {
+                return new ConcurrentHashMap<>();
+            }
+        }).put(name, value);
+    }
+
+    // Consumers of a provided state need no producer scenario
+    public static boolean isProvided(String state) {
+        return GlobalConstants.CREDENTIAL_POOL && MANAGER.equals(state);
+    }
+
+    // Fails the consuming step when the producer did not run or did not pass
+    public static <T> T get(String name) {
+        T value = find(name);
+        if (value == null && name.startsWith(MANAGER + ".") && isProvided(MANAGER)) {
+            ManagerCredentials manager = CredentialPool.getCredentialPool().take();
+            put(MANAGER_USER_ID, manager.getUserId());
+            put(MANAGER_PASSWORD, manager.getPassword());
+            value = find(name);
+        }
+        if (value == null) {
+            throw new IllegalStateException("Nothing produced '" + name + "' in chain " + getChainId()
+                    + ", check the @produces_ scenario of this chain passed");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T find(String name) {
+        Map<String, Object> values = chains.get(getChainId());
+        return values == null ? null : (T) values.get(name);
+    }
+
+    public static void clear(String chainId) {
+        chains.remove(chainId);
+    }
+
+    public static void clearAll() {
+        chains.clear();
+    }
+}
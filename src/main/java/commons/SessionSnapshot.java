@@ -0,0 +1,196 @@
+package commons;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.openqa.selenium.Cookie;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cookies and web storage of a logged in manager, as saved by SessionSnapshotStore
+public class SessionSnapshot {
+    private String userId;
+    private String originUrl;
+    private String landingUrl;
+    private long createdAt;
+    private long expiresAt;
+    private List<StoredCookie> cookies = new ArrayList<>();
+    private Map<String, String> localStorage = new LinkedHashMap<>();
+    private Map<String, String> sessionStorage = new LinkedHashMap<>();
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getOriginUrl() {
+        return originUrl;
+    }
+
+    public void setOriginUrl(String originUrl) {
+        this.originUrl = originUrl;
+    }
+
+    public String getLandingUrl() {
+        return landingUrl;
+    }
+
+    public void setLandingUrl(String landingUrl) {
+        this.landingUrl = landingUrl;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public List<StoredCookie> getCookies() {
+        return cookies;
+    }
+
+    public void setCookies(List<StoredCookie> cookies) {
+        this.cookies = cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public void setLocalStorage(Map<String, String> localStorage) {
+        this.localStorage = localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public void setSessionStorage(Map<String, String> sessionStorage) {
+        this.sessionStorage = sessionStorage;
+    }
+
+    @JsonIgnore
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAt;
+    }
+
+    // Cookies whose own expiry has passed are left out
+    @JsonIgnore
+    public Set<Cookie> getSeleniumCookies() {
+        Set<Cookie> seleniumCookies = new LinkedHashSet<>();
+        long now = System.currentTimeMillis();
+        for (StoredCookie cookie : cookies) {
+            if (cookie.getExpiry() == null || cookie.getExpiry() > now) {
+                seleniumCookies.add(cookie.toCookie());
+            }
+        }
+        return seleniumCookies;
+    }
+
+    @JsonIgnore
+    public void setSeleniumCookies(Set<Cookie> seleniumCookies) {
+        cookies = new ArrayList<>();
+        for (Cookie cookie : seleniumCookies) {
+            cookies.add(StoredCookie.from(cookie));
+        }
+    }
+
+    public static class StoredCookie {
+        private String name;
+        private String value;
+        private String domain;
+        private String path;
+        private Long expiry;
+        private boolean secure;
+        private boolean httpOnly;
+
+        public static StoredCookie from(Cookie cookie) {
+            StoredCookie storedCookie = new StoredCookie();
+            storedCookie.name = cookie.getName();
+            storedCookie.value = cookie.getValue();
+            storedCookie.domain = cookie.getDomain();
+            storedCookie.path = cookie.getPath();
+            storedCookie.expiry = cookie.getExpiry() == null ? null : cookie.getExpiry().getTime();
+            storedCookie.secure = cookie.isSecure();
+            storedCookie.httpOnly = cookie.isHttpOnly();
+            return storedCookie;
+        }
+
+        public Cookie toCookie() {
+            return new Cookie(name, value, domain, path, expiry == null ? null : new Date(expiry), secure, httpOnly);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public String getDomain() {
+            return domain;
+        }
+
+        public void setDomain(String domain) {
+            this.domain = domain;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Long getExpiry() {
+            return expiry;
+        }
+
+        public void setExpiry(Long expiry) {
+            this.expiry = expiry;
+        }
+
+        public boolean isSecure() {
+            return secure;
+        }
+
+        public void setSecure(boolean secure) {
+            this.secure = secure;
+        }
+
+        public boolean isHttpOnly() {
+            return httpOnly;
+        }
+
+        public void setHttpOnly(boolean httpOnly) {
+            this.httpOnly = httpOnly;
+        }
+    }
+}
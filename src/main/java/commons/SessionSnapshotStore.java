@@ -0,0 +1,153 @@
+package commons;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Saves the session of a logged in manager under SESSION_SNAPSHOT_DIR/<userId>.json and puts it back into another browser,
+ * so scenarios tagged @authenticated_manager can start on the Manager home page without the UI login.
+ * Snapshots live for SESSION_TTL_MINUTES and only match the site (LOGIN_PAGE origin) they were taken on.
+ */
+public class SessionSnapshotStore {
+    private static final Logger log = Logger.getLogger(SessionSnapshotStore.class.getName());
+    private static final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final SessionSnapshotStore sessionSnapshotStore =
+            new SessionSnapshotStore(new File(GlobalConstants.SESSION_SNAPSHOT_DIR), GlobalConstants.SESSION_TTL_MINUTES * 60_000L);
+
+    private final File folder;
+    private final long timeToLiveMillis;
+    private final BasePage basePage = BasePage.getBasePageObject();
+    private final ConcurrentHashMap<String, SessionSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public static SessionSnapshotStore getSessionSnapshotStore() {
+        return sessionSnapshotStore;
+    }
+
+    public SessionSnapshotStore(File folder, long timeToLiveMillis) {
+        this.folder = folder;
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    public SessionSnapshot capture(WebDriver driver, String userId) {
+        SessionSnapshot snapshot = new SessionSnapshot();
+        long now = System.currentTimeMillis();
+        snapshot.setUserId(userId);
+        snapshot.setOriginUrl(originOf(GlobalConstants.LOGIN_PAGE));
+        snapshot.setLandingUrl(driver.getCurrentUrl());
+        snapshot.setCreatedAt(now);
+        snapshot.setExpiresAt(now + timeToLiveMillis);
+        snapshot.setSeleniumCookies(basePage.getAllCookies(driver));
+        snapshot.setLocalStorage(basePage.getWebStorage(driver, "localStorage"));
+        snapshot.setSessionStorage(basePage.getWebStorage(driver, "sessionStorage"));
+        return snapshot;
+    }
+
+    public void save(SessionSnapshot snapshot) {
+        snapshots.put(snapshot.getUserId(), snapshot);
+        File target = fileOf(snapshot.getUserId());
+        try {
+            folder.mkdirs();
+            File temporary = new File(folder, target.getName() + ".tmp");
+            mapper.writeValue(temporary, snapshot);
+            try {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info("Saved the session snapshot of " + snapshot.getUserId());
+        } catch (IOException e) {
+            log.warn("Can not write the session snapshot " + target, e);
+        }
+    }
+
+    public SessionSnapshot load(String userId) {
+        SessionSnapshot snapshot = snapshots.get(userId);
+        if (snapshot == null) {
+            snapshot = read(fileOf(userId));
+        }
+        return isUsable(snapshot) ? snapshot : null;
+    }
+
+    // The newest snapshot of the current site that has not expired
+    public SessionSnapshot findLatest() {
+        SessionSnapshot latest = null;
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".json")) {
+                    SessionSnapshot snapshot = read(file);
+                    if (snapshot != null && snapshot.isExpired()) {
+                        remove(snapshot.getUserId());
+                    } else if (isUsable(snapshot) && (latest == null || snapshot.getCreatedAt() > latest.getCreatedAt())) {
+                        latest = snapshot;
+                    }
+                }
+            }
+        }
+        for (SessionSnapshot snapshot : snapshots.values()) {
+            if (isUsable(snapshot) && (latest == null || snapshot.getCreatedAt() > latest.getCreatedAt())) {
+                latest = snapshot;
+            }
+        }
+        return latest;
+    }
+
+    // Opens the site origin, injects cookies and storage in bulk, then reloads the page the snapshot was taken on
+    public boolean restore(WebDriver driver, SessionSnapshot snapshot) {
+        if (!isUsable(snapshot)) {
+            return false;
+        }
+        if (!snapshot.getOriginUrl().equals(originOf(driver.getCurrentUrl()))) {
+            driver.get(GlobalConstants.LOGIN_PAGE);
+        }
+        basePage.setAllCookies(driver, snapshot.getSeleniumCookies());
+        basePage.setWebStorage(driver, "localStorage", snapshot.getLocalStorage());
+        basePage.setWebStorage(driver, "sessionStorage", snapshot.getSessionStorage());
+        driver.get(snapshot.getLandingUrl());
+        return true;
+    }
+
+    public void remove(String userId) {
+        snapshots.remove(userId);
+        fileOf(userId).delete();
+    }
+
+    private boolean isUsable(SessionSnapshot snapshot) {
+        return snapshot != null && !snapshot.isExpired() && originOf(GlobalConstants.LOGIN_PAGE).equals(snapshot.getOriginUrl());
+    }
+
+    private SessionSnapshot read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(file, SessionSnapshot.class);
+        } catch (IOException e) {
+            log.warn("Can not read the session snapshot " + file, e);
+            return null;
+        }
+    }
+
+    private File fileOf(String userId) {
+        return new File(folder, userId.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json");
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getAuthority() + "/";
+        } catch (RuntimeException e) {
+            return url;
+        }
+    }
+}
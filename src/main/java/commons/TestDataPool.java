@@ -0,0 +1,95 @@
+package commons;
+
+import com.github.javafaker.Faker;
+import org.apache.log4j.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Customers generated ahead of time by one background thread with its own Faker.
+ * take() never blocks: it polls a lock-free queue and wakes the generator when the queue drops under TEST_DATA_LOW_WATERMARK.
+ * Emails are unique for the whole run, also for the customers generated on the caller thread when the queue runs dry.
+ */
+public class TestDataPool {
+    private static final Logger log = Logger.getLogger(TestDataPool.class.getName());
+    private static final TestDataPool testDataPool = new TestDataPool(GlobalConstants.TEST_DATA_BATCH, GlobalConstants.TEST_DATA_LOW_WATERMARK);
+
+    private final int batchSize;
+    private final int lowWatermark;
+    private final ConcurrentLinkedQueue<CustomerData> customers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger available = new AtomicInteger();
+    private final Set<String> usedEmails = ConcurrentHashMap.newKeySet();
+    private final LongAdder starved = new LongAdder();
+    private final ThreadLocal<Faker> callerFaker = new ThreadLocal<>();
+    private final Thread generator;
+
+    public static TestDataPool getTestDataPool() {
+        return testDataPool;
+    }
+
+    public TestDataPool(int batchSize, int lowWatermark) {
+        this.batchSize = Math.max(1, batchSize);
+        this.lowWatermark = Math.min(Math.max(0, lowWatermark), this.batchSize - 1);
+        this.generator = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                generate();
+            }
+        }, "test-data-generator");
+        generator.setDaemon(true);
+        generator.start();
+    }
+
+    public CustomerData take() {
+        CustomerData customer = customers.poll();
+        if (customer == null) {
+            starved.increment();
+            LockSupport.unpark(generator);
+            Faker faker = callerFaker.get();
+            if (faker == null) {
+                faker = new Faker();
+                callerFaker.set(faker);
+            }
+            return newCustomer(faker);
+        }
+        if (available.decrementAndGet() <= lowWatermark) {
+            LockSupport.unpark(generator);
+        }
+        return customer;
+    }
+
+    public int getAvailableCount() {
+        return available.get();
+    }
+
+    public long getStarvedCount() {
+        return starved.sum();
+    }
+
+    private void generate() {
+        Faker faker = new Faker();
+        while (!Thread.currentThread().isInterrupted()) {
+            while (available.get() < batchSize) {
+                customers.offer(newCustomer(faker));
+                available.incrementAndGet();
+            }
+            LockSupport.park(this);
+        }
+        log.info("Test data generator stopped, " + starved.sum() + " customer(s) were generated on the caller thread");
+    }
+
+    private CustomerData newCustomer(Faker faker) {
+        String email;
+        do {
+            email = faker.internet().emailAddress();
+        } while (!usedEmails.add(email));
+        return new CustomerData(faker.name().firstName(), faker.name().lastName(), faker.address().streetAddress(),
+                faker.address().city(), faker.address().stateAbbr(), faker.number().digits(6), faker.number().digits(9),
+                email, faker.internet().password());
+    }
+}
@@ -0,0 +1,73 @@
+package commons;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The only place that waits for the browser. Browsers run without implicit wait, so a condition is checked
+ * right away and then re-polled with a backing-off interval (WAIT_POLLING_MS up to WAIT_MAX_POLLING_MS).
+ */
+public class WaitEngine implements Wait<WebDriver> {
+    private final WebDriver driver;
+    private final long timeoutMillis;
+    private final long pollingMillis;
+    private final long maxPollingMillis;
+    private final double backoff;
+
+    public static WaitEngine getWaitEngine(WebDriver driver) {
+        return getWaitEngine(driver, GlobalConstants.LONG_TIMEOUT);
+    }
+
+    // Engines are immutable and cheap, each wait builds its own
+    public static WaitEngine getWaitEngine(WebDriver driver, long timeoutInSecond) {
+        return new WaitEngine(driver, TimeUnit.SECONDS.toMillis(timeoutInSecond), GlobalConstants.WAIT_POLLING_MS,
+                GlobalConstants.WAIT_MAX_POLLING_MS, GlobalConstants.WAIT_BACKOFF);
+    }
+
+    public WaitEngine(WebDriver driver, long timeoutMillis, long pollingMillis, long maxPollingMillis, double backoff) {
+        this.driver = driver;
+        this.timeoutMillis = timeoutMillis;
+        this.pollingMillis = Math.max(1, pollingMillis);
+        this.maxPollingMillis = Math.max(this.pollingMillis, maxPollingMillis);
+        this.backoff = Math.max(1.0, backoff);
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long interval = pollingMillis;
+        RuntimeException lastException = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new TimeoutException("Expected condition failed: " + condition + " (tried for " + timeoutMillis + " ms)", lastException);
+            }
+            try {
+                Thread.sleep(Math.min(interval, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for: " + condition, e);
+            }
+            interval = Math.min(maxPollingMillis, (long) (interval * backoff));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package commons;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Protocol;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.internal.OkHttpClient;
+
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the local driver servers: every client shares one OkHttp dispatcher and one keep-alive connection pool
+ * sized for the DriverPool, talks plain HTTP/1.1 and skips the system proxy lookup (the driver always listens on localhost).
+ */
+public class WireClientFactory implements HttpClient.Factory {
+    private static final WireClientFactory wireClientFactory = new WireClientFactory(GlobalConstants.POOL_SIZE * 2 + 2);
+
+    private final ConnectionPool connectionPool;
+    private final okhttp3.OkHttpClient sharedClient;
+
+    public static WireClientFactory getWireClientFactory() {
+        return wireClientFactory;
+    }
+
+    public WireClientFactory(int maxIdleConnections) {
+        this.connectionPool = new ConnectionPool(maxIdleConnections, 5, TimeUnit.MINUTES);
+        this.sharedClient = new okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                .proxy(Proxy.NO_PROXY)
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Override
+    public HttpClient.Builder builder() {
+        return new HttpClient.Builder() {
+            @Override
+            public HttpClient createClient(URL url) {
+                okhttp3.OkHttpClient.Builder client = sharedClient.newBuilder()
+                        .connectTimeout(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .writeTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (proxy != null) {
+                    client.proxy(proxy);
+                }
+                return new OkHttpClient(client.build(), url);
+            }
+        };
+    }
+
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        connectionPool.evictAll();
+    }
+}
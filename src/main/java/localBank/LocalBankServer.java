@@ -0,0 +1,336 @@
+package localBank;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import commons.GlobalConstants;
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for demo.guru99.com: register -> access details -> login -> Manager home -> New Customer.
+ * The pages carry the markup the pageUIs locators expect. Start it with -DSITE=local, LOCAL_SITE_LATENCY_MS adds a delay
+ * to every response and LOCAL_SITE_THREADS sets how many requests are served at the same time.
+ */
+public class LocalBankServer {
+    private static final Logger log = Logger.getLogger(LocalBankServer.class.getName());
+    private static final String SESSION_COOKIE = "PHPSESSID";
+    private static final String MANAGER_PATH = "/v4/manager/";
+    private static LocalBankServer localBankServer;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicInteger nextManagerId = new AtomicInteger(100000);
+    private final AtomicInteger nextCustomerId = new AtomicInteger(10000);
+    private final ConcurrentHashMap<String, String> passwordsByManager = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> managersBySession = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, String>> customersByEmail = new ConcurrentHashMap<>();
+
+    public static synchronized LocalBankServer startLocalSite() {
+        if (localBankServer == null) {
+            try {
+                localBankServer = new LocalBankServer(GlobalConstants.LOCAL_SITE_PORT, GlobalConstants.LOCAL_SITE_THREADS,
+                        GlobalConstants.LOCAL_SITE_LATENCY_MS);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can not start the local bank site on port " + GlobalConstants.LOCAL_SITE_PORT, e);
+            }
+            localBankServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    localBankServer.stop();
+                }
+            }));
+        }
+        return localBankServer;
+    }
+
+    public LocalBankServer(int port, int threads, long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(executor);
+        server.createContext("/", new BankHandler());
+    }
+
+    public void start() {
+        server.start();
+        log.info("------------- Local bank site on http://localhost:" + getPort() + "/ -------------");
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    private class BankHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                route(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+            } catch (RuntimeException e) {
+                log.error("Local bank site failed on " + exchange.getRequestURI(), e);
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean post = "POST".equalsIgnoreCase(exchange.getRequestMethod());
+
+        if (path.equals("/") || path.equals("/index.php")) {
+            sendPage(exchange, registerPage());
+        } else if (path.equals("/access.php") && post) {
+            register(exchange, readForm(exchange));
+        } else if (path.equals("/v4/") || path.equals("/v4/index.php")) {
+            if (post) {
+                login(exchange, readForm(exchange));
+            } else {
+                sendPage(exchange, loginPage());
+            }
+        } else if (path.startsWith(MANAGER_PATH)) {
+            String managerId = managersBySession.get(sessionOf(exchange));
+            if (managerId == null) {
+                redirect(exchange, "/v4/");
+                return;
+            }
+            String page = path.substring(MANAGER_PATH.length());
+            if (page.equals("Managerhomepage.php")) {
+                sendPage(exchange, managerHomePage(managerId));
+            } else if (page.equals("addcustomerpage.php")) {
+                sendPage(exchange, newCustomerPage());
+            } else if (page.equals("insertCustomer.php") && post) {
+                insertCustomer(exchange, readForm(exchange));
+            } else if (page.equals("Logout.php")) {
+                managersBySession.remove(sessionOf(exchange));
+                sendPage(exchange, alertPage("You Have Succesfully Logged Out!!", "/v4/"));
+            } else {
+                sendNotFound(exchange);
+            }
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+
+    private void register(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String email = form.get("emailid");
+        if (email == null || !email.contains("@")) {
+            sendPage(exchange, alertPage("Email ID is not valid", "/"));
+            return;
+        }
+        String managerId = "mngr" + nextManagerId.incrementAndGet();
+        String password = randomPassword();
+        passwordsByManager.put(managerId, password);
+        sendPage(exchange, accessDetailsPage(managerId, password));
+    }
+
+    private void login(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String managerId = form.get("uid");
+        String password = managerId == null ? null : passwordsByManager.get(managerId);
+        if (password == null || !password.equals(form.get("password"))) {
+            sendPage(exchange, alertPage("User or Password is not valid", "/v4/"));
+            return;
+        }
+        String session = UUID.randomUUID().toString().replace("-", "");
+        managersBySession.put(session, managerId);
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/");
+        redirect(exchange, MANAGER_PATH + "Managerhomepage.php");
+    }
+
+    private void insertCustomer(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String email = form.get("emailid");
+        Map<String, String> customer = new LinkedHashMap<>();
+        customer.put("Customer ID", String.valueOf(nextCustomerId.incrementAndGet()));
+        customer.put("Customer Name", form.get("name"));
+        customer.put("Gender", "f".equals(form.get("rad1")) ? "female" : "male");
+        customer.put("Birthdate", form.get("dob"));
+        customer.put("Address", form.get("addr"));
+        customer.put("City", form.get("city"));
+        customer.put("State", form.get("state"));
+        customer.put("Pin", form.get("pinno"));
+        customer.put("Mobile No.", form.get("telephoneno"));
+        customer.put("Email", email);
+        if (email == null || customersByEmail.putIfAbsent(email, customer) != null) {
+            sendPage(exchange, alertPage("Email Address Already Exist !!", MANAGER_PATH + "addcustomerpage.php"));
+            return;
+        }
+        sendPage(exchange, customerRegisteredPage(customer));
+    }
+
+    private String registerPage() {
+        return page("Guru99 Bank Register",
+                "<form name=\"frmLogin\" method=\"post\" action=\"/access.php\">"
+                + "<table><tr><td>Email ID</td><td><input type=\"text\" name=\"emailid\" maxlength=\"50\"></td></tr>"
+                + "<tr><td colspan=\"2\"><input type=\"submit\" name=\"btnLogin\" value=\"Submit\"></td></tr></table></form>");
+    }
+
+    private String accessDetailsPage(String managerId, String password) {
+        return page("Guru99 Bank Access Details",
+                "<table><tr><td colspan=\"2\"><h2>Access details to demo site.</h2></td></tr>"
+                + "<tr><td>User ID :</td><td>" + escape(managerId) + "</td></tr>"
+                + "<tr><td>Password :</td><td>" + escape(password) + "</td></tr>"
+                + "<tr><td colspan=\"2\">This access is valid only for 20 days.</td></tr></table>");
+    }
+
+    private String loginPage() {
+        return page("Guru99 Bank Home Page",
+                "<form name=\"frmLogin\" method=\"post\" action=\"/v4/\"><table>"
+                + "<tr><td>UserID</td><td><input type=\"text\" name=\"uid\" maxlength=\"10\"></td></tr>"
+                + "<tr><td>Password</td><td><input type=\"password\" name=\"password\" maxlength=\"10\"></td></tr>"
+                + "<tr><td colspan=\"2\"><input type=\"submit\" name=\"btnLogin\" value=\"LOGIN\"> <input type=\"reset\" name=\"btnReset\" value=\"RESET\"></td></tr>"
+                + "</table></form><p>Visit <a href=\"/\">here</a> to generate access to demo site for 20 days.</p>");
+    }
+
+    private String managerHomePage(String managerId) {
+        return page("Guru99 Bank Manager HomePage", menu()
+                + "<marquee class=\"heading3\">Welcome To Manager's Page of Guru99 Bank</marquee>"
+                + "<table><tr class=\"heading3\"><td>Manger Id : " + escape(managerId) + "</td></tr></table>");
+    }
+
+    private String newCustomerPage() {
+        return page("Guru99 Bank New Customer Entry Page", menu()
+                + "<form name=\"addcust\" method=\"post\" action=\"" + MANAGER_PATH + "insertCustomer.php\"><table>"
+                + "<tr><td>Customer Name</td><td><input type=\"text\" name=\"name\" maxlength=\"25\"></td></tr>"
+                + "<tr><td>Gender</td><td><input type=\"radio\" name=\"rad1\" value=\"m\" checked>male <input type=\"radio\" name=\"rad1\" value=\"f\">female</td></tr>"
+                + "<tr><td>Date of Birth</td><td><input type=\"date\" name=\"dob\" id=\"dob\"></td></tr>"
+                + "<tr><td>Address</td><td><textarea name=\"addr\" rows=\"5\" cols=\"20\"></textarea></td></tr>"
+                + "<tr><td>City</td><td><input type=\"text\" name=\"city\" maxlength=\"25\"></td></tr>"
+                + "<tr><td>State</td><td><input type=\"text\" name=\"state\" maxlength=\"25\"></td></tr>"
+                + "<tr><td>PIN</td><td><input type=\"text\" name=\"pinno\" maxlength=\"6\"></td></tr>"
+                + "<tr><td>Mobile Number</td><td><input type=\"text\" name=\"telephoneno\"></td></tr>"
+                + "<tr><td>E-mail</td><td><input type=\"text\" name=\"emailid\" maxlength=\"30\"></td></tr>"
+                + "<tr><td>Password</td><td><input type=\"password\" name=\"password\"></td></tr>"
+                + "<tr><td colspan=\"2\"><input type=\"submit\" name=\"sub\" value=\"Submit\"> <input type=\"reset\" name=\"res\" value=\"Reset\"></td></tr>"
+                + "</table></form>");
+    }
+
+    private String customerRegisteredPage(Map<String, String> customer) {
+        StringBuilder rows = new StringBuilder();
+        for (Map.Entry<String, String> field : customer.entrySet()) {
+            rows.append("<tr><td>").append(escape(field.getKey())).append("</td><td>").append(escape(field.getValue())).append("</td></tr>");
+        }
+        return page("Guru99 Bank Customer Registration Page", menu()
+                + "<table id=\"customer\"><tr><td colspan=\"2\"><p class=\"heading3\">Customer Registered Successfully!!!</p></td></tr>"
+                + rows + "</table>");
+    }
+
+    private String menu() {
+        return "<ul class=\"menusubnav\"><li><a href=\"" + MANAGER_PATH + "Managerhomepage.php\">Manager</a></li>"
+                + "<li><a href=\"" + MANAGER_PATH + "addcustomerpage.php\">New Customer</a></li>"
+                + "<li><a href=\"" + MANAGER_PATH + "Logout.php\">Log out</a></li></ul>";
+    }
+
+    private String alertPage(String message, String location) {
+        return page("Guru99 Bank", "<script>alert('" + escape(message) + "'); window.location = '" + location + "';</script>");
+    }
+
+    private static String page(String title, String body) {
+        return "<!DOCTYPE html><html><head><meta charset=\"UTF-8\"><title>" + title + "</title></head><body>" + body + "</body></html>";
+    }
+
+    private String randomPassword() {
+        String letters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        StringBuilder password = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            password.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return password.toString();
+    }
+
+    private static String sessionOf(HttpExchange exchange) {
+        String cookies = exchange.getRequestHeaders().getFirst("Cookie");
+        if (cookies != null) {
+            for (String cookie : cookies.split(";")) {
+                String[] pair = cookie.trim().split("=", 2);
+                if (pair.length == 2 && pair[0].equals(SESSION_COOKIE)) {
+                    return pair[1];
+                }
+            }
+        }
+        return "";
+    }
+
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        InputStream input = exchange.getRequestBody();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        Map<String, String> form = new LinkedHashMap<>();
+        for (String pair : new String(body.toByteArray(), StandardCharsets.UTF_8).split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            String[] field = pair.split("=", 2);
+            form.put(decode(field[0]), field.length > 1 ? decode(field[1]) : "");
+        }
+        return form;
+    }
+
+    private static String decode(String value) throws UnsupportedEncodingException {
+        return URLDecoder.decode(value, "UTF-8");
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&#39;");
+    }
+
+    private static void sendPage(HttpExchange exchange, String html) throws IOException {
+        byte[] content = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, content.length);
+        OutputStream body = exchange.getResponseBody();
+        body.write(content);
+        body.close();
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void sendNotFound(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(404, -1);
+    }
+}
@@ -2,8 +2,11 @@ package pageObjects;
 
 import commons.BasePage;
 import org.openqa.selenium.WebDriver;
+import pageUIs.BasePageUI;
 import pageUIs.HomePageUI;
 
+import java.util.Map;
+
 public class HomePageObject extends BasePage {
     WebDriver driver;
 
@@ -12,36 +15,37 @@ public class HomePageObject extends BasePage {
     }
 
     public boolean isSuccessfulMessageDisplayed(WebDriver driver, String messageValue) {
-        waitForElementVisible(driver, HomePageUI.SUCCESSFUL_MESSAGE, messageValue);
-        return isElementDisplayed(driver, HomePageUI.SUCCESSFUL_MESSAGE, messageValue);
+        return waitForElementVisible(driver, HomePageUI.SUCCESSFUL_MESSAGE, messageValue).isDisplayed();
+    }
+
+    public boolean isManagerMenuDisplayed() {
+        return !isElementUndisplayed(driver, BasePageUI.MENU_SUB_BY_TEXT, "New Customer");
     }
 
     public boolean isUserIDDisplayed(WebDriver driver, String userID) {
-        waitForElementVisible(driver, HomePageUI.USER_ID_MESSAGE, userID);
-        return isElementDisplayed(driver, HomePageUI.USER_ID_MESSAGE, userID);
+        return waitForElementVisible(driver, HomePageUI.USER_ID_MESSAGE, userID).isDisplayed();
     }
     public void checkOnRadioButton(WebDriver driver, String radioButton) {
-    	waitForElementClickable(driver, HomePageUI.RADIO_BUTTON, radioButton);
-    	checkToDefaultCheckboxOrRadio(driver, HomePageUI.RADIO_BUTTON, radioButton);
+    	waitAndCheckToDefaultCheckboxOrRadio(driver, HomePageUI.RADIO_BUTTON, radioButton);
     }
 
     public void inputToAddressTextbox(WebDriver driver, String address) {
-        waitForElementVisible(driver, HomePageUI.ADDRESS_TEXTBOX);
-        sendkeyToElement(driver, HomePageUI.ADDRESS_TEXTBOX, address);
+        waitAndSendkeyToElement(driver, HomePageUI.ADDRESS_TEXTBOX, address);
+    }
+
+    public void fillNewCustomerForm(WebDriver driver, Map<String, String> customerFields) {
+        fillFormByName(driver, customerFields);
     }
 
     public boolean theSuccessfulMessageIsDisplayed(WebDriver driver, String messageValue) {
-        waitForElementVisible(driver, HomePageUI.SUCCESSFUL_MESSAGE_OF_NEW_CUSTOMER, messageValue);
-        return isElementDisplayed(driver, HomePageUI.SUCCESSFUL_MESSAGE_OF_NEW_CUSTOMER, messageValue);
+        return waitForElementVisible(driver, HomePageUI.SUCCESSFUL_MESSAGE_OF_NEW_CUSTOMER, messageValue).isDisplayed();
     }
 
 	 public String getSuccessfulMessageDisplayed() {
-        waitForElementVisible(driver, HomePageUI.SUCCESSFUL_MESSAGE);
-        return getElementText(driver,HomePageUI.SUCCESSFUL_MESSAGE);
+        return waitAndGetElementText(driver, HomePageUI.SUCCESSFUL_MESSAGE);
 	}
 
 	 public String getUserIDMessageDisplayed() {
-	        waitForElementVisible(driver, HomePageUI.USER_ID_MESSAGE);
-	        return getElementText(driver, HomePageUI.USER_ID_MESSAGE);
+	        return waitAndGetElementText(driver, HomePageUI.USER_ID_MESSAGE);
 	}
 }
@@ -1,37 +1,63 @@
 package pageObjects;
 
 import commons.BasePage;
+import commons.GlobalConstants;
+import commons.SessionSnapshotStore;
+import commons.WaitEngine;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import pageUIs.BasePageUI;
 import pageUIs.LoginPageUI;
 
 public class LoginPageObject extends BasePage {
     WebDriver driver;
+    String userID;
 
     public LoginPageObject(WebDriver driver) {
         this.driver = driver;
     }
 
     public void clickOnHereButton() {
-        waitForElementClickable(driver, LoginPageUI.HERE_BUTTON);
-        clickOnElement(driver, LoginPageUI.HERE_BUTTON);
+        waitAndClickOnElement(driver, LoginPageUI.HERE_BUTTON);
      //   return PageGeneratorManager.getRegisterPage(driver);
     }
 
 
 
     public void inputToUserIDTextbox(String userID) {
-        waitForElementClickable(driver, LoginPageUI.USER_ID_TEXTBOX);
-        sendkeyToElement(driver, LoginPageUI.USER_ID_TEXTBOX, userID);
+        this.userID = userID;
+        waitAndSendkeyToElement(driver, LoginPageUI.USER_ID_TEXTBOX, userID);
     }
 
     public void inputToPasswordTextbox(String password) {
-        waitForElementClickable(driver, LoginPageUI.PASSWORD_TEXTBOX);
-        sendkeyToElement(driver, LoginPageUI.PASSWORD_TEXTBOX, password);
+        waitAndSendkeyToElement(driver, LoginPageUI.PASSWORD_TEXTBOX, password);
     }
 
     public void clickOnLoginButton() {
-        waitForElementClickable(driver, LoginPageUI.LOGIN_BUTTON);
-        clickOnElement(driver, LoginPageUI.LOGIN_BUTTON);
+        waitAndClickOnElement(driver, LoginPageUI.LOGIN_BUTTON);
+        if (GlobalConstants.SESSION_SNAPSHOTS && userID != null) {
+            saveSessionSnapshot();
+        }
+    }
+
+    // Opens the login page and signs in, for scenarios that need a manager session but do not test the login
+    public void loginAsManager(String userID, String password) {
+        openPageUrl(driver, GlobalConstants.LOGIN_PAGE);
+        inputToUserIDTextbox(userID);
+        inputToPasswordTextbox(password);
+        clickOnLoginButton();
+    }
+
+    private void saveSessionSnapshot() {
+        try {
+            WaitEngine.getWaitEngine(driver, GlobalConstants.SHORT_TIMEOUT)
+                    .until(ExpectedConditions.visibilityOfElementLocated(getByXpath(BasePageUI.MENU_SUB_BY_TEXT, "New Customer")));
+            SessionSnapshotStore sessionSnapshotStore = SessionSnapshotStore.getSessionSnapshotStore();
+            sessionSnapshotStore.save(sessionSnapshotStore.capture(driver, userID));
+        } catch (WebDriverException e) {
+            // The login did not reach the Manager page (invalid credentials alert), there is no session to keep
+        }
     }
 
 }
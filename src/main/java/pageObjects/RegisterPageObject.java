@@ -1,13 +1,18 @@
 package pageObjects;
 
 import commons.BasePage;
+import commons.FastBrowsing;
+import commons.GlobalConstants;
+import commons.WaitEngine;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import pageUIs.AccessDetailsPageUI;
 import pageUIs.LoginPageUI;
 import pageUIs.RegisterPageUI;
 
+import java.util.Map;
+
 public class RegisterPageObject extends BasePage {
     WebDriver driver;
 
@@ -16,36 +21,48 @@ public class RegisterPageObject extends BasePage {
     }
 
     public void closeAdsPopup() {
+    	if (FastBrowsing.isAdNetworkBlocked()) {
+    		// The ad network is blocked, no interstitial can show up
+    		return;
+    	}
     	try {
-        WebElement iFrame1 = driver.findElement(By.id("google_ads_iframe_/24132379/INTERSTITIAL_DemoGuru99_0"));
-        driver.switchTo().frame(iFrame1);
-        WebElement iFrame2 = driver.findElement(By.id("ad_iframe"));
-        driver.switchTo().frame(iFrame2);
-        waitForElementClickable(driver, LoginPageUI.CLOSE_ADS_BUTTON);
-        clickOnElement(driver, LoginPageUI.CLOSE_ADS_BUTTON);
+        WaitEngine adsWait = WaitEngine.getWaitEngine(driver, GlobalConstants.SHORT_TIMEOUT);
+        adsWait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(By.id("google_ads_iframe_/24132379/INTERSTITIAL_DemoGuru99_0")));
+        adsWait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(By.id("ad_iframe")));
+        waitAndClickOnElement(driver, LoginPageUI.CLOSE_ADS_BUTTON);
         driver.switchTo().defaultContent();
     	} catch (Exception e) {
-    		waitForElementClickable(driver, LoginPageUI.X_ADS_BUTTON);
-            clickOnElement(driver, LoginPageUI.X_ADS_BUTTON);
+    		// No interstitial frame; the close button may still be shown, or there is no ad at all (local site)
+    		if (!isElementUndisplayed(driver, LoginPageUI.X_ADS_BUTTON)) {
+    			waitAndClickOnElement(driver, LoginPageUI.X_ADS_BUTTON);
+    		}
     	}
     }
     public void inputToEmailTextbox(String email) {
-        waitForElementVisible(driver, RegisterPageUI.EMAIL_TEXTBOX);
-        sendkeyToElement(driver, RegisterPageUI.EMAIL_TEXTBOX, email);
+        waitAndSendkeyToElement(driver, RegisterPageUI.EMAIL_TEXTBOX, email);
     }
 
     public void clickOnSubmitButton() {
-        waitForElementClickable(driver, RegisterPageUI.SUBMIT_BUTTON);
-        clickOnElement(driver, RegisterPageUI.SUBMIT_BUTTON);
+        waitAndClickOnElement(driver, RegisterPageUI.SUBMIT_BUTTON);
     }
 
     public String getUsernameInformation() {
-        waitForElementVisible(driver, AccessDetailsPageUI.USER_ID);
-        return getElementText(driver, AccessDetailsPageUI.USER_ID);
+        return waitAndGetElementText(driver, AccessDetailsPageUI.USER_ID);
+    }
+
+    public Map<String, String> getAccessDetails() {
+        return getAllInfoValues(driver, "User ID", "Password");
+    }
+
+    public String getUsernameInformation(Map<String, String> accessDetails) {
+        return getInfoValueByText(accessDetails, "User ID");
+    }
+
+    public String getPasswordInformation(Map<String, String> accessDetails) {
+        return getInfoValueByText(accessDetails, "Password");
     }
 
     public String getPasswordInformation() {
-        waitForElementVisible(driver, AccessDetailsPageUI.PASSWORD);
-        return getElementText(driver, AccessDetailsPageUI.PASSWORD);
+        return waitAndGetElementText(driver, AccessDetailsPageUI.PASSWORD);
     }
 }
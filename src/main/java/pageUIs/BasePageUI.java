@@ -5,5 +5,7 @@ public class BasePageUI {
     public static final String TEXTBOX_BY_NAME = "//input[@name='%s']";
     public static final String GENDER_CHECKBOX_BY_VALUE = "//input[@value='%s']";
     public static final String BUTTON_BY_NAME = "//input[@name='%s']";
+    public static final String FIELD_BY_NAME = "//*[@name='%s']";
     public static final String INFO_VALUE_BY_TEXT = "//td[contains(text(),'%s')]/following-sibling::td";
+    public static final String INFO_LABEL_CELLS = "//td[following-sibling::td]";
 }
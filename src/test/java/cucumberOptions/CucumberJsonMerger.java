@@ -0,0 +1,199 @@
+package cucumberOptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Joins the per-task cucumber.json files back into the single file maven-cucumber-reporting reads.
+// Reports are read in run order: a scenario that shows up again was retried, its last attempt replaces the earlier ones and
+// carries "attempts", "final_status" and "attempt_history"; one that passed after failing is also tagged @flaky.
+public class CucumberJsonMerger {
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, String> uriByFeaturePath = new LinkedHashMap<>();
+
+    public void mapUri(String featurePath, String uri) {
+        uriByFeaturePath.put(featurePath, uri);
+    }
+
+    public void merge(List<File> taskReports, File target) throws IOException {
+        Map<String, ObjectNode> features = new LinkedHashMap<>();
+        for (String uri : uriByFeaturePath.values()) {
+            features.put(uri, null);
+        }
+
+        for (File taskReport : taskReports) {
+            if (!taskReport.isFile() || taskReport.length() == 0) {
+                continue;
+            }
+            for (JsonNode feature : mapper.readTree(taskReport)) {
+                String uri = feature.path("uri").asText();
+                if (uriByFeaturePath.containsKey(uri)) {
+                    uri = uriByFeaturePath.get(uri);
+                    ((ObjectNode) feature).put("uri", uri);
+                }
+                ObjectNode merged = features.get(uri);
+                if (merged == null) {
+                    merged = ((ObjectNode) feature).deepCopy();
+                    merged.putArray("elements");
+                    features.put(uri, merged);
+                }
+                ArrayNode elements = (ArrayNode) merged.get("elements");
+                List<JsonNode> block = new ArrayList<>();
+                for (JsonNode element : feature.path("elements")) {
+                    block.add(element);
+                    if (!"background".equals(element.path("type").asText())) {
+                        addBlock(elements, block);
+                        block = new ArrayList<>();
+                    }
+                }
+                for (JsonNode element : block) {
+                    elements.add(element);
+                }
+            }
+        }
+
+        ArrayNode report = mapper.createArrayNode();
+        for (ObjectNode feature : features.values()) {
+            if (feature != null) {
+                sortElementsByLine((ArrayNode) feature.get("elements"));
+                report.add(feature);
+            }
+        }
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        mapper.writeValue(target, report);
+    }
+
+    private static void addBlock(ArrayNode elements, List<JsonNode> block) {
+        ObjectNode scenario = (ObjectNode) block.get(block.size() - 1);
+        int line = scenario.path("line").asInt();
+        int previousEnd = -1;
+        for (int i = 0; i < elements.size(); i++) {
+            if (!"background".equals(elements.get(i).path("type").asText()) && elements.get(i).path("line").asInt() == line) {
+                previousEnd = i;
+            }
+        }
+        if (previousEnd >= 0) {
+            ObjectNode previous = (ObjectNode) elements.get(previousEnd);
+            ArrayNode history = previous.has("attempt_history") ? (ArrayNode) previous.get("attempt_history").deepCopy()
+                    : mapper.createArrayNode().add(attemptOf(previous, elementsBefore(elements, previousEnd), 1));
+            String status = statusOf(scenario, block.subList(0, block.size() - 1));
+            history.add(attemptOf(scenario, block.subList(0, block.size() - 1), history.size() + 1));
+            scenario.put("attempts", history.size());
+            scenario.put("final_status", status);
+            scenario.set("attempt_history", history);
+            if ("passed".equals(status)) {
+                ArrayNode tags = scenario.has("tags") ? (ArrayNode) scenario.get("tags") : scenario.putArray("tags");
+                tags.addObject().put("name", "@flaky").put("line", line - 1);
+            }
+            int previousStart = previousEnd;
+            while (previousStart > 0 && "background".equals(elements.get(previousStart - 1).path("type").asText())) {
+                previousStart--;
+            }
+            for (int i = previousEnd; i >= previousStart; i--) {
+                elements.remove(i);
+            }
+        }
+        for (JsonNode element : block) {
+            elements.add(element);
+        }
+    }
+
+    private static List<JsonNode> elementsBefore(ArrayNode elements, int scenarioIndex) {
+        List<JsonNode> backgrounds = new ArrayList<>();
+        for (int i = scenarioIndex - 1; i >= 0 && "background".equals(elements.get(i).path("type").asText()); i--) {
+            backgrounds.add(0, elements.get(i));
+        }
+        return backgrounds;
+    }
+
+    private static ObjectNode attemptOf(JsonNode scenario, List<JsonNode> backgrounds, int attempt) {
+        ObjectNode entry = mapper.createObjectNode();
+        entry.put("attempt", attempt);
+        entry.put("status", statusOf(scenario, backgrounds));
+        long duration = 0;
+        String error = null;
+        List<JsonNode> parts = new ArrayList<>(backgrounds);
+        parts.add(scenario);
+        for (JsonNode element : parts) {
+            for (String part : new String[]{"before", "steps", "after"}) {
+                for (JsonNode step : element.path(part)) {
+                    duration += step.path("result").path("duration").asLong(0);
+                    if (error == null && step.path("result").has("error_message")) {
+                        error = step.path("result").path("error_message").asText();
+                    }
+                }
+            }
+        }
+        entry.put("duration", duration);
+        if (error != null) {
+            entry.put("error_message", error);
+        }
+        return entry;
+    }
+
+    // failed beats every other status, then the first one that is neither passed nor skipped
+    private static String statusOf(JsonNode scenario, List<JsonNode> backgrounds) {
+        String status = "passed";
+        List<JsonNode> parts = new ArrayList<>(backgrounds);
+        parts.add(scenario);
+        for (JsonNode element : parts) {
+            for (String part : new String[]{"before", "steps", "after"}) {
+                for (JsonNode step : element.path(part)) {
+                    String stepStatus = step.path("result").path("status").asText("passed");
+                    if ("failed".equals(stepStatus)) {
+                        return stepStatus;
+                    }
+                    if ("passed".equals(status) && !"passed".equals(stepStatus) && !"skipped".equals(stepStatus)) {
+                        status = stepStatus;
+                    }
+                }
+            }
+        }
+        return status;
+    }
+
+    // A background element belongs to the scenario that follows it, so they are sorted as one block
+    private static void sortElementsByLine(ArrayNode elements) {
+        List<List<JsonNode>> blocks = new ArrayList<>();
+        List<JsonNode> block = new ArrayList<>();
+        for (JsonNode element : elements) {
+            block.add(element);
+            if (!"background".equals(element.path("type").asText())) {
+                blocks.add(block);
+                block = new ArrayList<>();
+            }
+        }
+        if (!block.isEmpty()) {
+            blocks.add(block);
+        }
+        Collections.sort(blocks, new Comparator<List<JsonNode>>() {
+            @Override
+            public int compare(List<JsonNode> first, List<JsonNode> second) {
+                return Integer.compare(lineOf(first), lineOf(second));
+            }
+        });
+        elements.removeAll();
+        for (List<JsonNode> sortedBlock : blocks) {
+            elements.addAll(sortedBlock);
+        }
+    }
+
+    private static int lineOf(List<JsonNode> block) {
+        return block.get(block.size() - 1).path("line").asInt();
+    }
+}
@@ -0,0 +1,20 @@
+package cucumberOptions;
+
+import org.junit.runner.RunWith;
+
+import cucumber.api.CucumberOptions;
+import cucumber.api.SnippetType;
+
+// mvn test -Dtest=Guru99LoadTest -DSITE=local -DBROWSER=hchrome -DLOAD_USERS=10 -DPOOL_SIZE=10
+@RunWith(LoadCucumber.class)
+@CucumberOptions(
+		features = "src/test/java/demo/guru99/features",
+		glue = { "demo.guru99.stepDefinitions", "cucumberOptions" },
+		strict = true,
+		monochrome = true,
+		snippets = SnippetType.CAMELCASE,
+		tags = { "@create_new_customer" })
+
+public class Guru99LoadTest {
+
+}
@@ -4,19 +4,18 @@ import org.junit.runner.RunWith;
 
 import cucumber.api.CucumberOptions;
 import cucumber.api.SnippetType;
-import cucumber.api.junit.Cucumber;
 
-@RunWith(Cucumber.class)
+@RunWith(ParallelCucumber.class)
 @CucumberOptions(
 		features = "src/test/java/demo/guru99/features",
-		glue = "demo.guru99.stepDefinitions",
+		glue = { "demo.guru99.stepDefinitions", "cucumberOptions" },
 		//dryRun = true,
 		strict = true,
 		monochrome = true,
 		plugin = { "pretty", "html: target/site/cucumber-report-default", "json: target/site/cucumber.json" },
 
 		snippets = SnippetType.CAMELCASE,
-		tags = { "@register_new_account, @login_new_account, @create_new_customer" })
+		tags = { "@register_new_account, @login_new_account, @create_new_customer, @create_new_customer_batch" })
 
 public class Guru99TestRunner {
 
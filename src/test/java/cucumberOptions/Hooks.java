@@ -1,106 +1,128 @@
 package cucumberOptions;
 
+import commons.CommandMetrics;
+import commons.DriverPool;
+import commons.FastSetup;
 import commons.GlobalConstants;
+import commons.ScenarioState;
+import commons.SessionSnapshot;
+import commons.SessionSnapshotStore;
+import cucumber.api.Scenario;
+import cucumber.api.java.After;
 import cucumber.api.java.Before;
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.apache.log4j.Logger;
+import org.openqa.selenium.NoAlertPresentException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebDriverException;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.ie.InternetExplorerDriver;
-import org.openqa.selenium.remote.UnreachableBrowserException;
+import pageObjects.HomePageObject;
+import pageObjects.PageGeneratorManager;
 
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
 
 public class Hooks {
-    private static WebDriver driver;
     private static final Logger log = Logger.getLogger(Hooks.class.getName());
 
     @Before
-    public synchronized static WebDriver openAndQuitBrowser() {
-        String browser = System.getProperty("BROWSER");
-        System.out.println("Browser name run by command line = " + browser);
-
-        if (driver == null) {
+    public static WebDriver openAndQuitBrowser() {
+        return DriverPool.getDriverPool().getDriver();
+    }
 
-            try {
-                if (browser == null) {
-                    browser = System.getenv("BROWSER");
-                    if (browser == null) {
-                        browser = "chrome";
-                    }
-                }
+    @Before
+    public void startCommandMetrics() {
+        CommandMetrics.resetScenarioMetrics();
+    }
 
-                switch (browser) {
-                    case "chrome":
-                        WebDriverManager.chromedriver().setup();
-                        driver = new ChromeDriver();
-                        break;
-                    case "hchrome":
-                        WebDriverManager.chromedriver().setup();
-                        ChromeOptions chromeOptions = new ChromeOptions();
-                        chromeOptions.addArguments("headless");
-                        chromeOptions.addArguments("window-size=1920x1080");
-                        driver = new ChromeDriver(chromeOptions);
-                        break;
-                    case "firefox":
-                        WebDriverManager.firefoxdriver().setup();
-                        System.setProperty(FirefoxDriver.SystemProperty.DRIVER_USE_MARIONETTE, "true");
-                        System.setProperty(FirefoxDriver.SystemProperty.BROWSER_LOGFILE, "/dev/null");
-                        driver = new FirefoxDriver();
-                        break;
-                    case "hfirefox":
-                        WebDriverManager.firefoxdriver().setup();
-                        System.setProperty(FirefoxDriver.SystemProperty.DRIVER_USE_MARIONETTE, "true");
-                        System.setProperty(FirefoxDriver.SystemProperty.BROWSER_LOGFILE, "/dev/null");
-                        FirefoxOptions firefoxOptions = new FirefoxOptions();
-                        firefoxOptions.setHeadless(true);
-                        driver = new FirefoxDriver(firefoxOptions);
-                        break;
-                    case "ie":
-                        WebDriverManager.iedriver().arch32().setup();
-                        driver = new InternetExplorerDriver();
-                        break;
-                    default:
-                        WebDriverManager.chromedriver().setup();
-                        driver = new ChromeDriver();
-                        break;
-                }
-            } catch (UnreachableBrowserException e) {
-                driver = new ChromeDriver();
-            } catch (WebDriverException e) {
-                driver = new ChromeDriver();
-            } finally {
-                Runtime.getRuntime().addShutdownHook(new Thread(new BrowserCleanup()));
-            }
+    // With CREDENTIAL_POOL a consumer is a task of its own, its leased browser may still be signed in on the page of another task
+    @Before(value = {"@consumes_manager", "~@authenticated_manager"}, order = 20000)
+    public void startSignedOut() {
+        if (GlobalConstants.CREDENTIAL_POOL) {
+            resetBrowser();
+        }
+    }
 
+    // Back on the login page without a session; the cookies can only be deleted from a page of the site
+    static void resetBrowser() {
+        WebDriver driver = DriverPool.getDriverPool().getDriver();
+        try {
+            driver.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException e) {
+            // Nothing left open
+        }
+        if (!driver.getCurrentUrl().startsWith(GlobalConstants.REGISTER_PAGE)) {
             driver.get(GlobalConstants.LOGIN_PAGE);
-            driver.manage().window().maximize();
-            driver.manage().timeouts().implicitlyWait(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS);
-            log.info("------------- Started the browser -------------");
         }
-        return driver;
+        driver.manage().deleteAllCookies();
+        driver.get(GlobalConstants.LOGIN_PAGE);
     }
 
-    public static void close() {
-        try {
-            if (driver != null) {
-                openAndQuitBrowser().quit();
-                log.info("------------- Closed the browser -------------");
+    // Runs after the browser hook; a browser that is still logged in keeps its session
+    @Before(value = "@authenticated_manager", order = 20000)
+    public void restoreManagerSession(Scenario scenario) {
+        WebDriver driver = DriverPool.getDriverPool().getDriver();
+        HomePageObject homePage = PageGeneratorManager.getHomePage(driver);
+        if (homePage.isManagerMenuDisplayed()) {
+            return;
+        }
+        String userId = ScenarioState.find(ScenarioState.MANAGER_USER_ID);
+        if (GlobalConstants.SESSION_SNAPSHOTS) {
+            SessionSnapshotStore sessionSnapshotStore = SessionSnapshotStore.getSessionSnapshotStore();
+            // A chain with its own manager only takes the session of that manager, any recent one is for chains without
+            SessionSnapshot snapshot = userId != null ? sessionSnapshotStore.load(userId) : sessionSnapshotStore.findLatest();
+            if (snapshot != null && sessionSnapshotStore.restore(driver, snapshot) && homePage.isManagerMenuDisplayed()) {
+                scenario.write("Restored the session of " + snapshot.getUserId());
+                return;
+            }
+            if (snapshot != null) {
+                sessionSnapshotStore.remove(snapshot.getUserId());
             }
-        } catch (UnreachableBrowserException e) {
-            System.out.println("Can not close the browser");
         }
+        // Sign in with the manager of this chain, a provided manager is taken from the pool when the chain has none
+        if (userId == null && ScenarioState.isProvided(ScenarioState.MANAGER)) {
+            userId = ScenarioState.get(ScenarioState.MANAGER_USER_ID);
+        }
+        if (userId == null) {
+            log.warn("No manager to sign in for " + scenario.getName() + ", the scenario starts on the current page");
+            return;
+        }
+        String password = ScenarioState.get(ScenarioState.MANAGER_PASSWORD);
+        if (GlobalConstants.FAST_SETUP && signInOverHttp(driver, homePage, userId, password)) {
+            scenario.write("Signed in as " + userId + " over HTTP");
+        } else {
+            PageGeneratorManager.getLoginPage(driver).loginAsManager(userId, password);
+            scenario.write("Signed in as " + userId);
+        }
+    }
+
+    // The login form is posted by FastSetup, the browser only opens the Manager page with the session cookies
+    private boolean signInOverHttp(WebDriver driver, HomePageObject homePage, String userId, String password) {
+        try {
+            FastSetup fastSetup = new FastSetup();
+            fastSetup.login(userId, password);
+            fastSetup.toBrowser(driver);
+            driver.get(FastSetup.MANAGER_HOME_PAGE);
+        } catch (IOException e) {
+            log.warn("Falling back to the UI login of " + userId + ": " + e.getMessage());
+            return false;
+        }
+        if (!homePage.isManagerMenuDisplayed()) {
+            log.warn("The browser did not take the HTTP session of " + userId + ", falling back to the UI login");
+            return false;
+        }
+        if (GlobalConstants.SESSION_SNAPSHOTS) {
+            SessionSnapshotStore sessionSnapshotStore = SessionSnapshotStore.getSessionSnapshotStore();
+            sessionSnapshotStore.save(sessionSnapshotStore.capture(driver, userId));
+        }
+        return true;
     }
 
-    private static class BrowserCleanup implements Runnable {
-        @Override
-        public void run() {
-            close();
+    @After
+    public void reportCommandMetrics(Scenario scenario) {
+        if (!CommandMetrics.getScenarioMetrics().isEmpty()) {
+            scenario.write(CommandMetrics.getScenarioMetrics().getSummary());
         }
     }
 
+    public static void close() {
+        DriverPool.getDriverPool().quitAll();
+    }
+
 }
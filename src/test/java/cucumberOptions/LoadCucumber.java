@@ -0,0 +1,172 @@
+package cucumberOptions;
+
+import commons.DriverPool;
+import commons.GlobalConstants;
+import commons.TestDataPool;
+import cucumber.api.CucumberOptions;
+import cucumber.runtime.ClassFinder;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.io.ResourceLoaderClassFinder;
+import org.apache.log4j.Logger;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.InitializationError;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load mode: LOAD_USERS virtual users, each on its own pinned browser from the DriverPool, start evenly over LOAD_RAMP_UP_SECONDS.
+ * A user runs the LOAD_SETUP_TAGS scenarios once (register and log in a manager, not measured), then repeats the measured
+ * scenarios (LOAD_TAGS, else the @CucumberOptions tags) until LOAD_STEADY_SECONDS after the ramp-up.
+ * Throughput and latency percentiles per scenario and step go to LOAD_REPORT, next to the cucumber report.
+ */
+public class LoadCucumber extends Runner {
+    private static final Logger log = Logger.getLogger(LoadCucumber.class.getName());
+
+    private final Class<?> testClass;
+    private final CucumberOptions options;
+    private final ClassLoader classLoader;
+    private final ResourceLoader resourceLoader;
+    private final String measuredTags;
+    private final Description description;
+
+    public LoadCucumber(Class<?> testClass) throws InitializationError {
+        this.testClass = testClass;
+        this.options = testClass.getAnnotation(CucumberOptions.class);
+        if (options == null) {
+            throw new InitializationError(testClass.getName() + " needs a @CucumberOptions annotation");
+        }
+        this.classLoader = testClass.getClassLoader();
+        this.resourceLoader = new MultiLoader(classLoader);
+        this.measuredTags = GlobalConstants.LOAD_TAGS.isEmpty() ? String.join(",", options.tags()) : GlobalConstants.LOAD_TAGS;
+        this.description = Description.createTestDescription(testClass.getName(),
+                "load " + measuredTags + " with " + GlobalConstants.LOAD_USERS + " virtual user(s)");
+    }
+
+    @Override
+    public Description getDescription() {
+        return description;
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        notifier.fireTestStarted(description);
+        int users = Math.max(1, GlobalConstants.LOAD_USERS);
+        if (DriverPool.getDriverPool().getPoolSize() < users) {
+            log.warn(users + " virtual users share " + DriverPool.getDriverPool().getPoolSize() + " browser(s), set POOL_SIZE to at least LOAD_USERS");
+        }
+        TestDataPool.getTestDataPool();
+
+        long rampUpNanos = TimeUnit.SECONDS.toNanos(GlobalConstants.LOAD_RAMP_UP_SECONDS);
+        final LoadStatistics statistics = new LoadStatistics(measuredTags, users, System.nanoTime(), rampUpNanos,
+                TimeUnit.SECONDS.toNanos(GlobalConstants.LOAD_STEADY_SECONDS));
+        final long startNanos = statistics.getSteadyStartNanos() - rampUpNanos;
+        final AtomicInteger failedSetups = new AtomicInteger();
+        ExecutorService virtualUsers = Executors.newFixedThreadPool(users);
+        for (int user = 0; user < users; user++) {
+            final long userStartNanos = startNanos + rampUpNanos * user / users;
+            virtualUsers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!runVirtualUser(statistics, userStartNanos)) {
+                        failedSetups.incrementAndGet();
+                    }
+                }
+            });
+        }
+        virtualUsers.shutdown();
+        try {
+            while (!virtualUsers.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Waiting for the virtual users to finish their last scenario");
+            }
+        } catch (InterruptedException e) {
+            virtualUsers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        log.info(statistics.getSummary());
+        writeReport(statistics);
+        if (statistics.getSteadyStatePassedCount() == 0) {
+            notifier.fireTestFailure(new Failure(description, new AssertionError("No scenario passed during the steady state, "
+                    + failedSetups.get() + " virtual user(s) failed their setup")));
+        }
+        notifier.fireTestFinished(description);
+    }
+
+    // Returns false when the setup scenarios failed and the user did not take part in the load
+    private boolean runVirtualUser(LoadStatistics statistics, long userStartNanos) {
+        long delayNanos = userStartNanos - System.nanoTime();
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        try {
+            DriverPool.getDriverPool().pinDriver();
+            if (!GlobalConstants.LOAD_SETUP_TAGS.isEmpty() && runScenarios(GlobalConstants.LOAD_SETUP_TAGS, null) != 0) {
+                log.warn(Thread.currentThread().getName() + " could not run the setup scenarios " + GlobalConstants.LOAD_SETUP_TAGS);
+                return false;
+            }
+            while (System.nanoTime() < statistics.getEndNanos() && !Thread.currentThread().isInterrupted()) {
+                runScenarios(measuredTags, new StepTimer(statistics));
+            }
+            return true;
+        } catch (Throwable e) {
+            log.error(Thread.currentThread().getName() + " stopped", e);
+            return false;
+        } finally {
+            DriverPool.getDriverPool().unpinDriver();
+        }
+    }
+
+    // One cucumber run of every scenario matching the tags, in feature order; returns the exit status
+    private byte runScenarios(String tags, StepTimer stepTimer) throws IOException {
+        List<String> arguments = new ArrayList<>();
+        for (String glue : options.glue()) {
+            arguments.add("--glue");
+            arguments.add(glue);
+        }
+        if (options.strict()) {
+            arguments.add("--strict");
+        }
+        arguments.add("--monochrome");
+        arguments.add("--tags");
+        arguments.add(tags);
+        for (String feature : options.features()) {
+            arguments.add(feature.trim());
+        }
+        RuntimeOptions runtimeOptions = new RuntimeOptions(arguments);
+        if (stepTimer != null) {
+            runtimeOptions.addPlugin(stepTimer);
+        }
+        ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
+        Runtime runtime = new Runtime(resourceLoader, classFinder, classLoader, runtimeOptions);
+        runtime.run();
+        return runtime.exitStatus();
+    }
+
+    private void writeReport(LoadStatistics statistics) {
+        File report = new File(GlobalConstants.LOAD_REPORT);
+        try {
+            statistics.writeJson(report);
+            log.info("Load report written to " + report);
+        } catch (IOException e) {
+            log.error("Can not write the load report " + report, e);
+        }
+    }
+}
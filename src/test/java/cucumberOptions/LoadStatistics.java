@@ -0,0 +1,186 @@
+package cucumberOptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import commons.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scenario and step latency of a load run, split into the ramp-up and steady-state phases by the scenario start time
+public class LoadStatistics {
+    private static final String RAMP_UP = "ramp-up";
+    private static final String STEADY_STATE = "steady-state";
+
+    private final String tags;
+    private final int users;
+    private final long startNanos;
+    private final long steadyStartNanos;
+    private final long endNanos;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+    public LoadStatistics(String tags, int users, long startNanos, long rampUpNanos, long steadyNanos) {
+        this.tags = tags;
+        this.users = users;
+        this.startNanos = startNanos;
+        this.steadyStartNanos = startNanos + rampUpNanos;
+        this.endNanos = steadyStartNanos + steadyNanos;
+        phases.put(RAMP_UP, new Phase(rampUpNanos));
+        phases.put(STEADY_STATE, new Phase(steadyNanos));
+    }
+
+    public long getSteadyStartNanos() {
+        return steadyStartNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public void recordScenario(String name, long scenarioStartNanos, long durationNanos, boolean passed) {
+        phaseOf(scenarioStartNanos).scenarios(name).record(durationNanos, passed);
+    }
+
+    public void recordStep(String name, long scenarioStartNanos, long durationNanos, boolean passed) {
+        phaseOf(scenarioStartNanos).steps(name).record(durationNanos, passed);
+    }
+
+    public long getSteadyStatePassedCount() {
+        long passed = 0;
+        for (Sample sample : phases.get(STEADY_STATE).scenarios.values()) {
+            passed += sample.passed.sum();
+        }
+        return passed;
+    }
+
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "Load run of %s with %d virtual user(s)%n", tags, users));
+        for (Map.Entry<String, Phase> phase : phases.entrySet()) {
+            summary.append(String.format(Locale.ROOT, "%n%s (%.0f s)%n", phase.getKey(), phase.getValue().seconds()));
+            summary.append(String.format(Locale.ROOT, "%-60s %7s %7s %8s %9s %9s %9s %9s%n", "scenario / step", "passed", "failed", "per sec", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+            appendRows(summary, phase.getValue(), phase.getValue().scenarios);
+            appendRows(summary, phase.getValue(), phase.getValue().steps);
+        }
+        return summary.toString();
+    }
+
+    public void writeJson(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode report = mapper.createObjectNode();
+        report.put("tags", tags);
+        report.put("users", users);
+        report.put("durationSeconds", (System.nanoTime() - startNanos) / 1e9);
+        ObjectNode phasesNode = report.putObject("phases");
+        for (Map.Entry<String, Phase> phase : phases.entrySet()) {
+            ObjectNode phaseNode = phasesNode.putObject(phase.getKey());
+            phaseNode.put("seconds", phase.getValue().seconds());
+            writeSamples(phaseNode.putArray("scenarios"), phase.getValue(), phase.getValue().scenarios);
+            writeSamples(phaseNode.putArray("steps"), phase.getValue(), phase.getValue().steps);
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        mapper.writeValue(file, report);
+    }
+
+    private Phase phaseOf(long scenarioStartNanos) {
+        return phases.get(scenarioStartNanos < steadyStartNanos ? RAMP_UP : STEADY_STATE);
+    }
+
+    private static void appendRows(StringBuilder summary, Phase phase, Map<String, Sample> samples) {
+        synchronized (samples) {
+            for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+                Sample sample = entry.getValue();
+                LatencyHistogram histogram = sample.histogram;
+                summary.append(String.format(Locale.ROOT, "%-60s %7d %7d %8.2f %9.1f %9.1f %9.1f %9.1f%n", abbreviate(entry.getKey(), 60),
+                        histogram.getCount(), sample.failed.sum(), phase.perSecond(sample), histogram.getPercentileMillis(50),
+                        histogram.getPercentileMillis(90), histogram.getPercentileMillis(99), histogram.getMaxMillis()));
+            }
+        }
+    }
+
+    private static void writeSamples(ArrayNode array, Phase phase, Map<String, Sample> samples) {
+        synchronized (samples) {
+            for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+                Sample sample = entry.getValue();
+                LatencyHistogram histogram = sample.histogram;
+                ObjectNode node = array.addObject();
+                node.put("name", entry.getKey());
+                node.put("passed", histogram.getCount());
+                node.put("failed", sample.failed.sum());
+                node.put("throughputPerSecond", phase.perSecond(sample));
+                node.put("meanMs", histogram.getMeanMillis());
+                node.put("p50Ms", histogram.getPercentileMillis(50));
+                node.put("p90Ms", histogram.getPercentileMillis(90));
+                node.put("p95Ms", histogram.getPercentileMillis(95));
+                node.put("p99Ms", histogram.getPercentileMillis(99));
+                node.put("maxMs", histogram.getMaxMillis());
+            }
+        }
+    }
+
+    private static String abbreviate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length - 3) + "...";
+    }
+
+    private static class Phase {
+        private final long nanos;
+        private final Map<String, Sample> scenarios = new LinkedHashMap<>();
+        private final Map<String, Sample> steps = new LinkedHashMap<>();
+
+        Phase(long nanos) {
+            this.nanos = nanos;
+        }
+
+        Sample scenarios(String name) {
+            return sample(scenarios, name);
+        }
+
+        Sample steps(String name) {
+            return sample(steps, name);
+        }
+
+        double seconds() {
+            return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        // Completed (passed) executions per second of the phase
+        double perSecond(Sample sample) {
+            return nanos == 0 ? 0 : sample.passed.sum() / seconds();
+        }
+
+        private static Sample sample(Map<String, Sample> samples, String name) {
+            synchronized (samples) {
+                Sample sample = samples.get(name);
+                if (sample == null) {
+                    sample = new Sample();
+                    samples.put(name, sample);
+                }
+                return sample;
+            }
+        }
+    }
+
+    private static class Sample {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        void record(long durationNanos, boolean succeeded) {
+            if (succeeded) {
+                histogram.record(durationNanos);
+                passed.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+}
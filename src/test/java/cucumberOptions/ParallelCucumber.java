@@ -0,0 +1,532 @@
+package cucumberOptions;
+
+import commons.CredentialPool;
+import commons.DriverPool;
+import commons.GlobalConstants;
+import commons.ScenarioState;
+import commons.TestDataPool;
+import localBank.LocalBankServer;
+import cucumber.api.CucumberOptions;
+import cucumber.runtime.ClassFinder;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.model.Tag;
+import org.apache.log4j.Logger;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs every scenario of the @CucumberOptions features as its own task on a work-stealing pool.
+ * Scenarios that share an exclusive tag (GlobalConstants.EXCLUSIVE_TAG_PREFIX) form one task and keep their feature order,
+ * so does a chain of a @produces_<name> scenario and the @consumes_<name> scenarios after it; separate chains run concurrently.
+ * A consumer of a provided state (ScenarioState.isProvided, e.g. the manager with CREDENTIAL_POOL) joins no chain.
+ * A task leases one browser for all of its scenarios and releases it when the task ends.
+ * Each task writes its own json report, the reports are merged into the json plugin path once all tasks are done.
+ * With SHARDS > 1 the tasks are split over forked JVMs by ShardPlanner instead, each shard runs its part the same way.
+ * Failed scenarios are run again at the end, up to RETRY_TEST_FAIL more times on the same pool and browsers, each attempt
+ * starting signed out on the login page;
+ * CucumberJsonMerger keeps their last attempt and records every attempt in the report.
+ */
+public class ParallelCucumber extends ParentRunner<ScenarioTask> {
+    private static final Logger log = Logger.getLogger(ParallelCucumber.class.getName());
+    private static final String TASK_REPORT_FOLDER = "target" + File.separator + "cucumber-parallel";
+
+    private final Class<?> testClass;
+    private final CucumberOptions options;
+    private final ClassLoader classLoader;
+    private final ResourceLoader resourceLoader;
+    private final List<ScenarioTask> tasks = new ArrayList<>();
+    private final List<File> taskReports = new ArrayList<>();
+    private final CucumberJsonMerger jsonMerger = new CucumberJsonMerger();
+    private final String taskReportFolder;
+    private final String jsonReport;
+    private final ForkJoinScheduler scheduler = new ForkJoinScheduler(GlobalConstants.PARALLEL_THREADS);
+    private final Map<ScenarioTask, List<ScenarioTask.ScenarioUnit>> retryScenarios = new ConcurrentHashMap<>();
+
+    public ParallelCucumber(Class<?> testClass) throws InitializationError {
+        super(testClass);
+        this.testClass = testClass;
+        this.options = testClass.getAnnotation(CucumberOptions.class);
+        if (options == null) {
+            throw new InitializationError(testClass.getName() + " needs a @CucumberOptions annotation");
+        }
+        this.classLoader = testClass.getClassLoader();
+        this.resourceLoader = new MultiLoader(classLoader);
+        this.taskReportFolder = GlobalConstants.SHARD_INDEX < 0 ? TASK_REPORT_FOLDER
+                : TASK_REPORT_FOLDER + File.separator + "shard-" + GlobalConstants.SHARD_INDEX;
+        this.jsonReport = GlobalConstants.SHARD_REPORT.isEmpty() ? findJsonPluginPath() : GlobalConstants.SHARD_REPORT;
+        planTasks();
+        if (GlobalConstants.SHARD_INDEX >= 0) {
+            keepShardTasks();
+        }
+        setScheduler(scheduler);
+    }
+
+    @Override
+    protected List<ScenarioTask> getChildren() {
+        return tasks;
+    }
+
+    @Override
+    protected Description describeChild(ScenarioTask task) {
+        return task.getDescription(testClass);
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        if (GlobalConstants.SHARDS > 1 && GlobalConstants.SHARD_INDEX < 0) {
+            runShards(notifier);
+        } else {
+            new File(taskReportFolder).mkdirs();
+            // Start generating test data and registering managers while the first browsers launch
+            TestDataPool.getTestDataPool();
+            if (GlobalConstants.CREDENTIAL_POOL) {
+                CredentialPool.getCredentialPool();
+            }
+            super.run(notifier);
+            retryFailedScenarios(notifier);
+            if (GlobalConstants.CREDENTIAL_POOL) {
+                log.info("Credential pool: " + CredentialPool.getCredentialPool().getStarvedCount() + " account(s) registered on the caller thread, "
+                        + CredentialPool.getCredentialPool().getExpiredCount() + " expired");
+            }
+            ScenarioState.clearAll();
+            mergeReports();
+        }
+        if (GlobalConstants.SHARD_INDEX < 0) {
+            archiveReport();
+        }
+    }
+
+    private void runShards(RunNotifier notifier) {
+        if (GlobalConstants.LOCAL_SITE) {
+            LocalBankServer.startLocalSite();
+        }
+        List<File> history = new ArrayList<>();
+        for (String entry : GlobalConstants.SHARD_HISTORY.split(",")) {
+            history.add(new File(entry.trim()));
+        }
+        ShardPlanner planner = new ShardPlanner(history);
+        if (!planner.hasHistory() && jsonReport != null) {
+            // No archived run yet, the last report is the only history there is
+            planner = new ShardPlanner(Arrays.asList(new File(jsonReport)));
+        }
+        List<List<ScenarioTask>> shards = planner.plan(tasks, GlobalConstants.SHARDS);
+        List<File> shardReports = new ShardLauncher(testClass, options.strict()).run(shards, notifier);
+        synchronized (taskReports) {
+            taskReports.clear();
+            taskReports.addAll(shardReports);
+        }
+        mergeReports();
+    }
+
+    @Override
+    protected void runChild(ScenarioTask task, RunNotifier notifier) {
+        int taskIndex = tasks.indexOf(task);
+        List<ScenarioTask.ScenarioUnit> failed = runTask(task, task.getKey(), taskLabel(taskIndex), 1, notifier);
+        if (!failed.isEmpty()) {
+            retryScenarios.put(task, failed);
+        }
+    }
+
+    // Returns the failed scenarios left for another attempt
+    // chainId names the ScenarioState of the task, a retry keeps the one of its original task
+    private List<ScenarioTask.ScenarioUnit> runTask(ScenarioTask task, String chainId, String taskLabel, int attempt, RunNotifier notifier) {
+        ScenarioState.bind(chainId);
+        ScenarioNotifier scenarioNotifier = new ScenarioNotifier(task, testClass, notifier, options.strict(),
+                attempt, attempt > GlobalConstants.RETRY_TEST_FAIL);
+        try {
+            RuntimeOptions runtimeOptions = new RuntimeOptions(buildTaskArguments(task, taskLabel));
+            runtimeOptions.addPlugin(scenarioNotifier);
+            ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
+            Runtime runtime = new Runtime(resourceLoader, classFinder, classLoader, runtimeOptions);
+            if (attempt > 1) {
+                // The failed attempt left its browser on some page, possibly signed in or with an alert open
+                Hooks.resetBrowser();
+            }
+            runtime.run();
+        } catch (Throwable e) {
+            notifier.fireTestFailure(new Failure(task.getDescription(testClass), e));
+        } finally {
+            ScenarioState.unbind();
+            DriverPool.getDriverPool().releaseDriver();
+        }
+        return scenarioNotifier.getRetryScenarios();
+    }
+
+    // Only the failed scenarios run again; those of an exclusive task stay together, in their order
+    private void retryFailedScenarios(final RunNotifier notifier) {
+        for (int attempt = 2; attempt <= GlobalConstants.RETRY_TEST_FAIL + 1 && !retryScenarios.isEmpty(); attempt++) {
+            Map<ScenarioTask, List<ScenarioTask.ScenarioUnit>> failedTasks = new LinkedHashMap<>();
+            for (ScenarioTask task : tasks) {
+                if (retryScenarios.containsKey(task)) {
+                    failedTasks.put(task, retryScenarios.remove(task));
+                }
+            }
+            log.info("------------- Attempt " + attempt + " for " + failedTasks.size() + " failed task(s) -------------");
+            final int currentAttempt = attempt;
+            for (final Map.Entry<ScenarioTask, List<ScenarioTask.ScenarioUnit>> failedTask : failedTasks.entrySet()) {
+                final ScenarioTask retryTask = new ScenarioTask(failedTask.getKey().getName());
+                for (ScenarioTask.ScenarioUnit scenario : failedTask.getValue()) {
+                    retryTask.addScenario(scenario);
+                }
+                final String retryLabel = taskLabel(tasks.indexOf(failedTask.getKey())) + "-attempt-" + attempt;
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<ScenarioTask.ScenarioUnit> failed = runTask(retryTask, failedTask.getKey().getKey(), retryLabel, currentAttempt, notifier);
+                        if (!failed.isEmpty()) {
+                            retryScenarios.put(failedTask.getKey(), failed);
+                        }
+                    }
+                });
+            }
+            scheduler.finished();
+        }
+    }
+
+    private void planTasks() throws InitializationError {
+        List<String> arguments = buildCommonArguments();
+        for (String tag : options.tags()) {
+            arguments.add("--tags");
+            arguments.add(tag);
+        }
+        for (String name : options.name()) {
+            arguments.add("--name");
+            arguments.add(name);
+        }
+        arguments.addAll(featureRoots());
+
+        List<CucumberFeature> features = new RuntimeOptions(arguments).cucumberFeatures(resourceLoader);
+        Map<String, ScenarioTask> exclusiveTasks = new LinkedHashMap<>();
+        // State name -> task of the latest scenario that produces it
+        Map<String, ScenarioTask> producerTasks = new HashMap<>();
+        final Map<ScenarioTask.ScenarioUnit, Integer> planOrder = new HashMap<>();
+        for (CucumberFeature feature : features) {
+            String featurePath = resolveFeaturePath(feature.getPath());
+            jsonMerger.mapUri(featurePath, feature.getPath());
+            for (CucumberTagStatement element : feature.getFeatureElements()) {
+                String exclusiveTag = findExclusiveTag(feature, element);
+                Set<String> producedStates = findStateTags(feature, element, GlobalConstants.PRODUCER_TAG_PREFIX);
+                Set<String> consumedStates = findStateTags(feature, element, GlobalConstants.CONSUMER_TAG_PREFIX);
+                for (ScenarioTask.ScenarioUnit scenario : toScenarioUnits(featurePath, feature.getPath(), element)) {
+                    planOrder.put(scenario, planOrder.size());
+                    List<ScenarioTask> joined = new ArrayList<>();
+                    for (String state : consumedStates) {
+                        if (ScenarioState.isProvided(state)) {
+                            continue;
+                        }
+                        ScenarioTask producerTask = producerTasks.get(state);
+                        if (producerTask == null) {
+                            log.warn(scenario.getName() + " consumes '" + state + "' but no scenario before it produces it");
+                        } else if (!joined.contains(producerTask)) {
+                            joined.add(producerTask);
+                        }
+                    }
+                    if (exclusiveTag != null && exclusiveTasks.containsKey(exclusiveTag) && !joined.contains(exclusiveTasks.get(exclusiveTag))) {
+                        joined.add(exclusiveTasks.get(exclusiveTag));
+                    }
+                    // The earliest planned task takes in the others
+                    Collections.sort(joined, new Comparator<ScenarioTask>() {
+                        @Override
+                        public int compare(ScenarioTask first, ScenarioTask second) {
+                            return Integer.compare(tasks.indexOf(first), tasks.indexOf(second));
+                        }
+                    });
+                    ScenarioTask task;
+                    if (joined.isEmpty()) {
+                        task = new ScenarioTask(exclusiveTag != null ? exclusiveTag : scenario.getName());
+                        tasks.add(task);
+                    } else {
+                        task = joined.get(0);
+                        // A scenario that needs two chains makes them one
+                        for (ScenarioTask other : joined.subList(1, joined.size())) {
+                            task.absorb(other, new Comparator<ScenarioTask.ScenarioUnit>() {
+                                @Override
+                                public int compare(ScenarioTask.ScenarioUnit first, ScenarioTask.ScenarioUnit second) {
+                                    return Integer.compare(planOrder.get(first), planOrder.get(second));
+                                }
+                            });
+                            tasks.remove(other);
+                            replaceTask(producerTasks, other, task);
+                            replaceTask(exclusiveTasks, other, task);
+                        }
+                    }
+                    task.addScenario(scenario);
+                    if (exclusiveTag != null) {
+                        exclusiveTasks.put(exclusiveTag, task);
+                    }
+                    for (String state : producedStates) {
+                        producerTasks.put(state, task);
+                    }
+                }
+            }
+        }
+        if (tasks.isEmpty()) {
+            log.warn("No scenario matches the @CucumberOptions of " + testClass.getName());
+        }
+    }
+
+    private void keepShardTasks() throws InitializationError {
+        Set<String> shardTaskKeys;
+        try {
+            shardTaskKeys = new HashSet<>(ShardPlanner.readPlan(new File(GlobalConstants.SHARD_PLAN), GlobalConstants.SHARD_INDEX));
+        } catch (IOException e) {
+            throw new InitializationError(Arrays.<Throwable>asList(e));
+        }
+        List<ScenarioTask> shardTasks = new ArrayList<>();
+        for (ScenarioTask task : tasks) {
+            if (shardTaskKeys.contains(task.getKey())) {
+                shardTasks.add(task);
+            }
+        }
+        if (shardTasks.size() != shardTaskKeys.size()) {
+            log.warn("Shard " + GlobalConstants.SHARD_INDEX + " found " + shardTasks.size() + " of its " + shardTaskKeys.size() + " planned task(s)");
+        }
+        tasks.clear();
+        tasks.addAll(shardTasks);
+    }
+
+    private List<ScenarioTask.ScenarioUnit> toScenarioUnits(String featurePath, String uri, CucumberTagStatement element) {
+        List<ScenarioTask.ScenarioUnit> units = new ArrayList<>();
+        if (element instanceof CucumberScenarioOutline) {
+            for (CucumberExamples examples : ((CucumberScenarioOutline) element).getCucumberExamplesList()) {
+                for (CucumberScenario example : examples.createExampleScenarios()) {
+                    units.add(new ScenarioTask.ScenarioUnit(featurePath, uri, example.getGherkinModel().getLine(), example.getVisualName()));
+                }
+            }
+        } else {
+            units.add(new ScenarioTask.ScenarioUnit(featurePath, uri, element.getGherkinModel().getLine(), element.getVisualName()));
+        }
+        return units;
+    }
+
+    private static void replaceTask(Map<String, ScenarioTask> tasksByName, ScenarioTask replaced, ScenarioTask replacement) {
+        for (Map.Entry<String, ScenarioTask> entry : tasksByName.entrySet()) {
+            if (entry.getValue() == replaced) {
+                entry.setValue(replacement);
+            }
+        }
+    }
+
+    // The state names of the tags that start with prefix, e.g. "manager" for @produces_manager
+    private Set<String> findStateTags(CucumberFeature feature, CucumberTagStatement element, String prefix) {
+        Set<String> states = new TreeSet<>();
+        List<Tag> tags = new ArrayList<>(feature.getGherkinFeature().getTags());
+        tags.addAll(element.getGherkinModel().getTags());
+        for (Tag tag : tags) {
+            if (tag.getName().startsWith(prefix) && tag.getName().length() > prefix.length()) {
+                states.add(tag.getName().substring(prefix.length()));
+            }
+        }
+        return states;
+    }
+
+    private String findExclusiveTag(CucumberFeature feature, CucumberTagStatement element) {
+        TreeSet<String> exclusiveTags = new TreeSet<>();
+        List<Tag> tags = new ArrayList<>(feature.getGherkinFeature().getTags());
+        tags.addAll(element.getGherkinModel().getTags());
+        for (Tag tag : tags) {
+            if (tag.getName().startsWith(GlobalConstants.EXCLUSIVE_TAG_PREFIX)) {
+                exclusiveTags.add(tag.getName());
+            }
+        }
+        return exclusiveTags.isEmpty() ? null : exclusiveTags.first();
+    }
+
+    // Line filters can not be combined with tag filters, the tags were already applied while planning
+    private List<String> buildTaskArguments(ScenarioTask task, String taskLabel) {
+        List<String> arguments = buildCommonArguments();
+        for (String plugin : options.plugin()) {
+            String pluginName = plugin.trim();
+            String pluginPath = null;
+            int separator = pluginName.indexOf(':');
+            if (separator > 0) {
+                pluginPath = pluginName.substring(separator + 1).trim();
+                pluginName = pluginName.substring(0, separator).trim();
+            }
+
+            arguments.add("--plugin");
+            if (pluginPath == null) {
+                arguments.add(pluginName);
+            } else if (pluginName.equals("json")) {
+                File taskReport = new File(taskReportFolder, taskLabel + ".json");
+                synchronized (taskReports) {
+                    taskReports.add(taskReport);
+                }
+                arguments.add("json:" + taskReport.getPath());
+            } else if (pluginName.equals("html")) {
+                arguments.add("html:" + pluginPath + File.separator + taskLabel);
+            } else {
+                arguments.add(pluginName + ":" + appendTaskLabel(pluginPath, taskLabel));
+            }
+        }
+        arguments.addAll(task.getFeatureArguments());
+        return arguments;
+    }
+
+    private List<String> buildCommonArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (String glue : options.glue()) {
+            arguments.add("--glue");
+            arguments.add(glue);
+        }
+        if (options.strict()) {
+            arguments.add("--strict");
+        }
+        if (options.monochrome()) {
+            arguments.add("--monochrome");
+        }
+        if (options.dryRun()) {
+            arguments.add("--dry-run");
+        }
+        arguments.add("--snippets");
+        arguments.add(options.snippets().name().toLowerCase());
+        return arguments;
+    }
+
+    private List<String> featureRoots() {
+        List<String> roots = new ArrayList<>();
+        for (String feature : options.features()) {
+            roots.add(feature.trim());
+        }
+        return roots;
+    }
+
+    // CucumberFeature.getPath() is relative to the feature root it was loaded from
+    private String resolveFeaturePath(String relativePath) {
+        for (String root : featureRoots()) {
+            if (root.endsWith(relativePath)) {
+                return root;
+            }
+            String candidate = root + "/" + relativePath;
+            if (root.startsWith(MultiLoader.CLASSPATH_SCHEME) || new File(candidate).isFile()) {
+                return candidate;
+            }
+        }
+        return relativePath;
+    }
+
+    private String findJsonPluginPath() {
+        for (String plugin : options.plugin()) {
+            int separator = plugin.indexOf(':');
+            if (separator > 0 && plugin.substring(0, separator).trim().equals("json")) {
+                return plugin.substring(separator + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    private static String taskLabel(int taskIndex) {
+        return (GlobalConstants.SHARD_INDEX < 0 ? "" : "shard-" + GlobalConstants.SHARD_INDEX + "-") + "task-" + taskIndex;
+    }
+
+    private static String appendTaskLabel(String path, String taskLabel) {
+        int extension = path.lastIndexOf('.');
+        if (extension > path.lastIndexOf(File.separatorChar) && extension > path.lastIndexOf('/')) {
+            return path.substring(0, extension) + "-" + taskLabel + path.substring(extension);
+        }
+        return path + "-" + taskLabel;
+    }
+
+    private void mergeReports() {
+        if (jsonReport == null) {
+            return;
+        }
+        try {
+            jsonMerger.merge(taskReports, new File(jsonReport));
+            log.info("Merged " + taskReports.size() + " task report(s) into " + jsonReport);
+        } catch (Exception e) {
+            log.error("Can not merge the cucumber json reports", e);
+        }
+    }
+
+    // Keeps the last SHARD_HISTORY_KEEP reports as duration history for the shard planner
+    private void archiveReport() {
+        if (jsonReport == null || !new File(jsonReport).isFile()) {
+            return;
+        }
+        // The first SHARD_HISTORY entry, or the folder of it when it names a report file
+        File historyFolder = new File(GlobalConstants.SHARD_HISTORY.split(",")[0].trim());
+        if (historyFolder.getName().endsWith(".json")) {
+            historyFolder = historyFolder.getAbsoluteFile().getParentFile();
+        }
+        historyFolder.mkdirs();
+        try {
+            Files.copy(new File(jsonReport).toPath(), new File(historyFolder, "cucumber-" + System.currentTimeMillis() + ".json").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Can not keep " + jsonReport + " in the duration history: " + e.getMessage());
+            return;
+        }
+        File[] archived = historyFolder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File folder, String name) {
+                return name.startsWith("cucumber-") && name.endsWith(".json");
+            }
+        });
+        if (archived != null && archived.length > GlobalConstants.SHARD_HISTORY_KEEP) {
+            Arrays.sort(archived);
+            for (int i = 0; i < archived.length - GlobalConstants.SHARD_HISTORY_KEEP; i++) {
+                archived[i].delete();
+            }
+        }
+    }
+
+    private static class ForkJoinScheduler implements RunnerScheduler {
+        private final ForkJoinPool pool;
+        private final List<ForkJoinTask<?>> submitted = new ArrayList<>();
+
+        ForkJoinScheduler(int concurrency) {
+            this.pool = new ForkJoinPool(Math.max(1, concurrency));
+        }
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            submitted.add(pool.submit(childStatement));
+        }
+
+        @Override
+        public void finished() {
+            for (ForkJoinTask<?> task : submitted) {
+                try {
+                    task.join();
+                } catch (RuntimeException e) {
+                    log.error("Scenario task ended with an error", e);
+                }
+            }
+            submitted.clear();
+        }
+    }
+}
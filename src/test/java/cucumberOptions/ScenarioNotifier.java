@@ -0,0 +1,164 @@
+package cucumberOptions;
+
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the Cucumber events of one task into JUnit notifications for its scenarios.
+// A failed scenario that will be retried stays started: its failure and finish are only reported by its last attempt.
+public class ScenarioNotifier implements Formatter, Reporter {
+    private final ScenarioTask task;
+    private final Class<?> testClass;
+    private final RunNotifier notifier;
+    private final boolean strict;
+    private final int attempt;
+    private final boolean lastAttempt;
+    private final List<ScenarioTask.ScenarioUnit> retryScenarios = new ArrayList<>();
+    private ScenarioTask.ScenarioUnit currentUnit;
+    private Description currentScenario;
+    private Throwable failure;
+    private boolean failed;
+
+    public ScenarioNotifier(ScenarioTask task, Class<?> testClass, RunNotifier notifier, boolean strict) {
+        this(task, testClass, notifier, strict, 1, true);
+    }
+
+    public ScenarioNotifier(ScenarioTask task, Class<?> testClass, RunNotifier notifier, boolean strict, int attempt, boolean lastAttempt) {
+        this.task = task;
+        this.testClass = testClass;
+        this.notifier = notifier;
+        this.strict = strict;
+        this.attempt = attempt;
+        this.lastAttempt = lastAttempt;
+    }
+
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    // The failed scenarios whose result is still open, in the order they ran
+    public List<ScenarioTask.ScenarioUnit> getRetryScenarios() {
+        return retryScenarios;
+    }
+
+    @Override
+    public void startOfScenarioLifeCycle(Scenario scenario) {
+        currentUnit = task.findScenario(scenario.getLine());
+        currentScenario = currentUnit != null ? currentUnit.getDescription(testClass)
+                : Description.createTestDescription(testClass.getName(), scenario.getName() + " (line " + scenario.getLine() + ")");
+        failure = null;
+        if (attempt == 1 || currentUnit == null) {
+            notifier.fireTestStarted(currentScenario);
+        }
+    }
+
+    @Override
+    public void endOfScenarioLifeCycle(Scenario scenario) {
+        if (failure != null) {
+            failed = true;
+            if (!lastAttempt && currentUnit != null) {
+                retryScenarios.add(currentUnit);
+                currentScenario = null;
+                return;
+            }
+            notifier.fireTestFailure(new Failure(currentScenario, failure));
+        }
+        notifier.fireTestFinished(currentScenario);
+        currentScenario = null;
+    }
+
+    @Override
+    public void result(Result result) {
+        collect(result);
+    }
+
+    @Override
+    public void before(Match match, Result result) {
+        collect(result);
+    }
+
+    @Override
+    public void after(Match match, Result result) {
+        collect(result);
+    }
+
+    private void collect(Result result) {
+        if (failure != null || currentScenario == null) {
+            return;
+        }
+        if (Result.FAILED.equals(result.getStatus())) {
+            failure = result.getError() != null ? result.getError() : new AssertionError(result.getErrorMessage());
+        } else if (strict && !Result.PASSED.equals(result.getStatus()) && !Result.SKIPPED.getStatus().equals(result.getStatus())) {
+            failure = new IllegalStateException("Step is " + result.getStatus() + " in strict mode");
+        }
+    }
+
+    @Override
+    public void syntaxError(String state, String event, List<String> legalEvents, String uri, Integer line) {
+    }
+
+    @Override
+    public void uri(String uri) {
+    }
+
+    @Override
+    public void feature(Feature feature) {
+    }
+
+    @Override
+    public void scenarioOutline(ScenarioOutline scenarioOutline) {
+    }
+
+    @Override
+    public void examples(Examples examples) {
+    }
+
+    @Override
+    public void background(Background background) {
+    }
+
+    @Override
+    public void scenario(Scenario scenario) {
+    }
+
+    @Override
+    public void step(Step step) {
+    }
+
+    @Override
+    public void done() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void eof() {
+    }
+
+    @Override
+    public void match(Match match) {
+    }
+
+    @Override
+    public void embedding(String mimeType, byte[] data) {
+    }
+
+    @Override
+    public void write(String text) {
+    }
+}
@@ -0,0 +1,124 @@
+package cucumberOptions;
+
+import org.junit.runner.Description;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScenarioTask {
+    private final String name;
+    private final List<ScenarioUnit> scenarios = new ArrayList<>();
+    private Description description;
+
+    public ScenarioTask(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void addScenario(ScenarioUnit scenario) {
+        scenarios.add(scenario);
+        description = null;
+    }
+
+    // Takes over the scenarios of other, the combined list follows order
+    public void absorb(ScenarioTask other, Comparator<ScenarioUnit> order) {
+        scenarios.addAll(other.scenarios);
+        Collections.sort(scenarios, order);
+        description = null;
+    }
+
+    public List<ScenarioUnit> getScenarios() {
+        return scenarios;
+    }
+
+    public Description getDescription(Class<?> testClass) {
+        if (description == null) {
+            if (scenarios.size() == 1) {
+                description = scenarios.get(0).getDescription(testClass);
+            } else {
+                description = Description.createSuiteDescription(name);
+                for (ScenarioUnit scenario : scenarios) {
+                    description.addChild(scenario.getDescription(testClass));
+                }
+            }
+        }
+        return description;
+    }
+
+    public ScenarioUnit findScenario(int line) {
+        for (ScenarioUnit scenario : scenarios) {
+            if (scenario.getLine() == line) {
+                return scenario;
+            }
+        }
+        return null;
+    }
+
+    // Identifies the task across JVMs that planned the same features
+    public String getKey() {
+        return String.join(" ", getFeatureArguments());
+    }
+
+    // Feature path -> "path:line:line" in the order the scenarios were planned
+    public List<String> getFeatureArguments() {
+        Map<String, StringBuilder> arguments = new LinkedHashMap<>();
+        for (ScenarioUnit scenario : scenarios) {
+            StringBuilder argument = arguments.get(scenario.getFeaturePath());
+            if (argument == null) {
+                argument = new StringBuilder(scenario.getFeaturePath());
+                arguments.put(scenario.getFeaturePath(), argument);
+            }
+            argument.append(':').append(scenario.getLine());
+        }
+        List<String> featureArguments = new ArrayList<>();
+        for (StringBuilder argument : arguments.values()) {
+            featureArguments.add(argument.toString());
+        }
+        return featureArguments;
+    }
+
+    public static class ScenarioUnit {
+        private final String featurePath;
+        private final String uri;
+        private final int line;
+        private final String name;
+        private Description description;
+
+        public ScenarioUnit(String featurePath, String uri, int line, String name) {
+            this.featurePath = featurePath;
+            this.uri = uri;
+            this.line = line;
+            this.name = name;
+        }
+
+        public String getFeaturePath() {
+            return featurePath;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Description getDescription(Class<?> testClass) {
+            if (description == null) {
+                description = Description.createTestDescription(testClass.getName(), name + " (" + uri + ":" + line + ")");
+            }
+            return description;
+        }
+    }
+}
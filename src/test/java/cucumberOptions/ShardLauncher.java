@@ -0,0 +1,166 @@
+package cucumberOptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.GlobalConstants;
+import org.apache.log4j.Logger;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the planned shards in SHARDS forked JVMs (JUnitCore on the same test class with SHARD_INDEX and SHARD_PLAN set),
+ * merges their json reports into the report of the parent run and turns the scenario results back into JUnit events.
+ * The parent serves the local site for its shards.
+ */
+public class ShardLauncher {
+    private static final Logger log = Logger.getLogger(ShardLauncher.class.getName());
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String SHARD_FOLDER = "target" + File.separator + "cucumber-shards";
+    // Settings are upper case system properties, they travel to every shard
+    private static final Pattern SETTING_NAME = Pattern.compile("[A-Z][A-Z0-9_]*");
+
+    private final Class<?> testClass;
+    private final boolean strict;
+
+    public ShardLauncher(Class<?> testClass, boolean strict) {
+        this.testClass = testClass;
+        this.strict = strict;
+    }
+
+    // Returns the shard json reports, in shard order
+    public List<File> run(List<List<ScenarioTask>> shards, RunNotifier notifier) {
+        File shardFolder = new File(SHARD_FOLDER);
+        shardFolder.mkdirs();
+        File planFile = new File(shardFolder, "plan.tsv");
+        List<File> reports = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        try {
+            ShardPlanner.writePlan(shards, planFile);
+            for (int shard = 0; shard < shards.size(); shard++) {
+                File report = new File(shardFolder, "shard-" + shard + ".json");
+                report.delete();
+                reports.add(report);
+                processes.add(shards.get(shard).isEmpty() ? null : fork(shard, planFile, report, new File(shardFolder, "shard-" + shard + ".log")));
+            }
+        } catch (IOException e) {
+            for (Process process : processes) {
+                if (process != null) {
+                    process.destroyForcibly();
+                }
+            }
+            for (List<ScenarioTask> shard : shards) {
+                for (ScenarioTask task : shard) {
+                    notifier.fireTestFailure(new Failure(task.getDescription(testClass), e));
+                }
+            }
+            return reports;
+        }
+
+        int[] exitCodes = new int[shards.size()];
+        for (int shard = 0; shard < processes.size(); shard++) {
+            if (processes.get(shard) != null) {
+                try {
+                    exitCodes[shard] = processes.get(shard).waitFor();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    processes.get(shard).destroyForcibly();
+                    exitCodes[shard] = -1;
+                }
+                log.info("Shard " + shard + " exited with " + exitCodes[shard]);
+            }
+        }
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Map<String, String> results = readResults(reports.get(shard));
+            for (ScenarioTask task : shards.get(shard)) {
+                for (ScenarioTask.ScenarioUnit scenario : task.getScenarios()) {
+                    String key = ShardPlanner.scenarioKey(scenario.getUri(), scenario.getLine());
+                    notifier.fireTestStarted(scenario.getDescription(testClass));
+                    if (!results.containsKey(key)) {
+                        notifier.fireTestFailure(new Failure(scenario.getDescription(testClass), new IllegalStateException(
+                                "Shard " + shard + " exited with " + exitCodes[shard] + " without a result, see " + SHARD_FOLDER)));
+                    } else if (results.get(key) != null) {
+                        notifier.fireTestFailure(new Failure(scenario.getDescription(testClass), new AssertionError(results.get(key))));
+                    }
+                    notifier.fireTestFinished(scenario.getDescription(testClass));
+                }
+            }
+        }
+        return reports;
+    }
+
+    private Process fork(int shard, File planFile, File report, File logFile) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        if (!GlobalConstants.SHARD_JVM_ARGS.isEmpty()) {
+            command.addAll(Arrays.asList(GlobalConstants.SHARD_JVM_ARGS.split("\\s+")));
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (SETTING_NAME.matcher(name).matches() && !name.startsWith("SHARD")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-DSHARD_INDEX=" + shard);
+        command.add("-DSHARD_PLAN=" + planFile.getAbsolutePath());
+        command.add("-DSHARD_REPORT=" + report.getAbsolutePath());
+        command.add(JUnitCore.class.getName());
+        command.add(testClass.getName());
+        log.info("Starting shard " + shard + ", output in " + logFile);
+        return new ProcessBuilder(command).directory(new File(GlobalConstants.PROJECT_PATH))
+                .redirectErrorStream(true).redirectOutput(logFile).start();
+    }
+
+    // Scenario key -> null when it passed, else the first error; a missing key means the scenario never reported
+    private Map<String, String> readResults(File report) {
+        Map<String, String> results = new HashMap<>();
+        if (!report.isFile() || report.length() == 0) {
+            return results;
+        }
+        try {
+            for (JsonNode feature : mapper.readTree(report)) {
+                String uri = feature.path("uri").asText();
+                String backgroundError = null;
+                for (JsonNode element : feature.path("elements")) {
+                    String error = findError(element);
+                    if ("background".equals(element.path("type").asText())) {
+                        backgroundError = error;
+                    } else {
+                        results.put(ShardPlanner.scenarioKey(uri, element.path("line").asInt()), backgroundError != null ? backgroundError : error);
+                        backgroundError = null;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Can not read the shard report " + report + ": " + e.getMessage());
+        }
+        return results;
+    }
+
+    private String findError(JsonNode element) {
+        for (String part : Arrays.asList("before", "steps", "after")) {
+            for (JsonNode step : element.path(part)) {
+                JsonNode result = step.path("result");
+                String status = result.path("status").asText();
+                if ("failed".equals(status)) {
+                    return result.path("error_message").asText("Step failed");
+                }
+                if (strict && !"passed".equals(status) && !"skipped".equals(status)) {
+                    return "Step is " + status + " in strict mode";
+                }
+            }
+        }
+        return null;
+    }
+}
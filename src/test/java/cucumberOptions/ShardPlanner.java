@@ -0,0 +1,190 @@
+package cucumberOptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits the scenario tasks over shards by expected wall-clock time: the duration of a scenario is its mean over the
+ * cucumber.json files in the history (uri and line identify it), tasks without history count as the mean of the known ones.
+ * Tasks are handed out longest first, each to the shard with the least time so far (longest processing time first).
+ */
+public class ShardPlanner {
+    private static final Logger log = Logger.getLogger(ShardPlanner.class.getName());
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, Long> durations = new HashMap<>();
+
+    // History entries are cucumber.json files or folders of them; missing ones are skipped
+    public ShardPlanner(List<File> history) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (File report : listReports(history)) {
+            try {
+                for (Map.Entry<String, Long> scenario : readDurations(report).entrySet()) {
+                    long[] total = totals.get(scenario.getKey());
+                    if (total == null) {
+                        total = new long[2];
+                        totals.put(scenario.getKey(), total);
+                    }
+                    total[0] += scenario.getValue();
+                    total[1]++;
+                }
+            } catch (IOException e) {
+                log.warn("Can not read the duration history " + report + ": " + e.getMessage());
+            }
+        }
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            durations.put(total.getKey(), total.getValue()[0] / total.getValue()[1]);
+        }
+    }
+
+    public boolean hasHistory() {
+        return !durations.isEmpty();
+    }
+
+    public static String scenarioKey(String uri, int line) {
+        return uri + ":" + line;
+    }
+
+    // Nanoseconds, or -1 when the history does not know the scenario
+    public long getDuration(ScenarioTask.ScenarioUnit scenario) {
+        Long duration = durations.get(scenarioKey(scenario.getUri(), scenario.getLine()));
+        return duration == null ? -1 : duration;
+    }
+
+    public List<List<ScenarioTask>> plan(List<ScenarioTask> tasks, int shardCount) {
+        final Map<ScenarioTask, Long> estimates = new HashMap<>();
+        long known = 0;
+        int knownCount = 0;
+        for (ScenarioTask task : tasks) {
+            for (ScenarioTask.ScenarioUnit scenario : task.getScenarios()) {
+                long duration = getDuration(scenario);
+                if (duration >= 0) {
+                    known += duration;
+                    knownCount++;
+                }
+            }
+        }
+        long fallback = knownCount == 0 ? 1 : Math.max(1, known / knownCount);
+        for (ScenarioTask task : tasks) {
+            long estimate = 0;
+            for (ScenarioTask.ScenarioUnit scenario : task.getScenarios()) {
+                long duration = getDuration(scenario);
+                estimate += duration >= 0 ? duration : fallback;
+            }
+            estimates.put(task, estimate);
+        }
+
+        List<ScenarioTask> longestFirst = new ArrayList<>(tasks);
+        Collections.sort(longestFirst, new Comparator<ScenarioTask>() {
+            @Override
+            public int compare(ScenarioTask first, ScenarioTask second) {
+                return Long.compare(estimates.get(second), estimates.get(first));
+            }
+        });
+        final long[] loads = new long[Math.max(1, shardCount)];
+        List<List<ScenarioTask>> shards = new ArrayList<>();
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(loads.length, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                int byLoad = Long.compare(loads[first], loads[second]);
+                return byLoad != 0 ? byLoad : Integer.compare(first, second);
+            }
+        });
+        for (int shard = 0; shard < loads.length; shard++) {
+            shards.add(new ArrayList<ScenarioTask>());
+            leastLoaded.add(shard);
+        }
+        for (ScenarioTask task : longestFirst) {
+            int shard = leastLoaded.poll();
+            shards.get(shard).add(task);
+            loads[shard] += estimates.get(task);
+            leastLoaded.add(shard);
+        }
+        for (int shard = 0; shard < loads.length; shard++) {
+            log.info("Shard " + shard + ": " + shards.get(shard).size() + " task(s), about " + loads[shard] / 1_000_000_000L + " s");
+        }
+        return shards;
+    }
+
+    // One "shard<TAB>task key" line per task, read back by the forked shards
+    public static void writePlan(List<List<ScenarioTask>> shards, File planFile) throws IOException {
+        StringBuilder plan = new StringBuilder();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (ScenarioTask task : shards.get(shard)) {
+                plan.append(shard).append('\t').append(task.getKey()).append('\n');
+            }
+        }
+        planFile.getAbsoluteFile().getParentFile().mkdirs();
+        Files.write(planFile.toPath(), plan.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<String> readPlan(File planFile, int shard) throws IOException {
+        List<String> taskKeys = new ArrayList<>();
+        for (String line : Files.readAllLines(planFile.toPath(), StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab > 0 && Integer.parseInt(line.substring(0, tab)) == shard) {
+                taskKeys.add(line.substring(tab + 1));
+            }
+        }
+        return taskKeys;
+    }
+
+    // A scenario lasts its hooks and steps plus the background that ran right before it
+    static Map<String, Long> readDurations(File report) throws IOException {
+        Map<String, Long> scenarios = new LinkedHashMap<>();
+        for (JsonNode feature : mapper.readTree(report)) {
+            String uri = feature.path("uri").asText();
+            long background = 0;
+            for (JsonNode element : feature.path("elements")) {
+                long duration = 0;
+                for (String part : Arrays.asList("before", "steps", "after")) {
+                    for (JsonNode result : element.path(part)) {
+                        duration += result.path("result").path("duration").asLong(0);
+                    }
+                }
+                if ("background".equals(element.path("type").asText())) {
+                    background = duration;
+                } else {
+                    scenarios.put(scenarioKey(uri, element.path("line").asInt()), background + duration);
+                    background = 0;
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    private static List<File> listReports(List<File> history) {
+        List<File> reports = new ArrayList<>();
+        for (File entry : history) {
+            if (entry.isFile() && entry.length() > 0) {
+                reports.add(entry);
+            } else if (entry.isDirectory()) {
+                File[] files = entry.listFiles();
+                if (files != null) {
+                    Arrays.sort(files);
+                    for (File file : files) {
+                        if (file.isFile() && file.getName().endsWith(".json") && file.length() > 0) {
+                            reports.add(file);
+                        }
+                    }
+                }
+            }
+        }
+        return reports;
+    }
+}
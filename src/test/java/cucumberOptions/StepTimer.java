@@ -0,0 +1,124 @@
+package cucumberOptions;
+
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+// Feeds step and scenario durations of one virtual user into the LoadStatistics of the run
+public class StepTimer implements Formatter, Reporter {
+    private final LoadStatistics statistics;
+    private final ArrayDeque<String> pendingSteps = new ArrayDeque<>();
+    private long scenarioStart;
+    private boolean scenarioFailed;
+
+    public StepTimer(LoadStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void startOfScenarioLifeCycle(Scenario scenario) {
+        scenarioStart = System.nanoTime();
+        scenarioFailed = false;
+        pendingSteps.clear();
+    }
+
+    @Override
+    public void endOfScenarioLifeCycle(Scenario scenario) {
+        statistics.recordScenario(scenario.getName(), scenarioStart, System.nanoTime() - scenarioStart, !scenarioFailed);
+    }
+
+    // Cucumber formats every step of a scenario (or background) before it runs them, so results come back in the same order
+    @Override
+    public void step(Step step) {
+        pendingSteps.addLast(step.getKeyword() + step.getName());
+    }
+
+    @Override
+    public void result(Result result) {
+        String step = pendingSteps.pollFirst();
+        if (step == null || Result.SKIPPED == result || Result.SKIPPED.getStatus().equals(result.getStatus())) {
+            return;
+        }
+        boolean stepPassed = Result.PASSED.equals(result.getStatus());
+        if (!stepPassed) {
+            scenarioFailed = true;
+        }
+        statistics.recordStep(step, scenarioStart, result.getDuration() == null ? 0 : result.getDuration(), stepPassed);
+    }
+
+    @Override
+    public void before(Match match, Result result) {
+        if (Result.FAILED.equals(result.getStatus())) {
+            scenarioFailed = true;
+        }
+    }
+
+    @Override
+    public void after(Match match, Result result) {
+        if (Result.FAILED.equals(result.getStatus())) {
+            scenarioFailed = true;
+        }
+    }
+
+    @Override
+    public void syntaxError(String state, String event, List<String> legalEvents, String uri, Integer line) {
+    }
+
+    @Override
+    public void uri(String uri) {
+    }
+
+    @Override
+    public void feature(Feature feature) {
+    }
+
+    @Override
+    public void scenarioOutline(ScenarioOutline scenarioOutline) {
+    }
+
+    @Override
+    public void examples(Examples examples) {
+    }
+
+    @Override
+    public void background(Background background) {
+    }
+
+    @Override
+    public void scenario(Scenario scenario) {
+    }
+
+    @Override
+    public void done() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void eof() {
+    }
+
+    @Override
+    public void match(Match match) {
+    }
+
+    @Override
+    public void embedding(String mimeType, byte[] data) {
+    }
+
+    @Override
+    public void write(String text) {
+    }
+}
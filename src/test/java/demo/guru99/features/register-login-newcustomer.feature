@@ -1,7 +1,7 @@
 @features
 Feature: Register / Login / New Customer
 
-  @register_new_account
+  @register_new_account @produces_manager
   Scenario: Create new account
     # Given Open Login Page
     When Click on Here button
@@ -14,7 +14,7 @@ Feature: Register / Login / New Customer
     Then Get Password info
     Then Open Login Page again
 
- @login_new_account
+ @login_new_account @consumes_manager
   Scenario: Login by new account
     # Given Open Login Page
     Then Enter to Username textbox
@@ -22,7 +22,7 @@ Feature: Register / Login / New Customer
     Then Click on Login button
     And Successful page is displayed
     
-   @create_new_customer
+   @create_new_customer @authenticated_manager @consumes_manager
   Scenario: Create New Customer
     # Given Open HomePage
     When Click on New Customer on sub menu
@@ -41,5 +41,10 @@ Feature: Register / Login / New Customer
     And Successful message is displayed
     And Verify all output data display same as input data
 
-    
-
+  @create_new_customer_batch @authenticated_manager @consumes_manager
+  Scenario: Create New Customer with one form fill
+    When Click on New Customer on sub menu
+    Then Input all fields of New Customer form
+    Then Click on Submit button
+    And Successful message is displayed
+    And Verify all output data display same as input data
@@ -10,6 +10,9 @@ import cucumberOptions.Hooks;
 import org.openqa.selenium.WebDriver;
 import pageObjects.HomePageObject;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class HomePageSteps {
     WebDriver driver;
     HomePageObject homePage;
@@ -110,6 +113,22 @@ public class HomePageSteps {
 
     }
 
+    @Then("^Input all fields of New Customer form$")
+    public void input_all_fields_of_new_customer_form() {
+        Map<String, String> customerFields = new LinkedHashMap<>();
+        customerFields.put("name", customerName);
+        customerFields.put("rad1", "f");
+        customerFields.put("dob", dateOfBirth);
+        customerFields.put("addr", address);
+        customerFields.put("city", city);
+        customerFields.put("state", state);
+        customerFields.put("pinno", pinNumber);
+        customerFields.put("telephoneno", phoneNumber);
+        customerFields.put("emailid", email);
+        customerFields.put("password", password);
+        homePage.fillNewCustomerForm(driver, customerFields);
+    }
+
     @Then("^Click on Submit button$")
     public void click_on_submit_button() {
         homePage.clickOnButtonByName(driver, "sub");
@@ -125,14 +144,16 @@ public class HomePageSteps {
 
     @And("^Verify all output data display same as input data$")
     public void verifyAllOutputDataDisplaySameAsInputData() {
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Customer Name"), customerName);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Gender"), gender);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Birthdate"), dateOfBirth);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Address"), address);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "City"), city);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "State"), state);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Pin"), pinNumber);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Mobile No."), phoneNumber);
-        Assert.assertEquals(homePage.getInfoValueByText(driver, "Email"), email);
+        Map<String, String> customerInfo = homePage.getAllInfoValues(driver, "Customer Name", "Gender", "Birthdate", "Address", "City", "State",
+                "Pin", "Mobile No.", "Email");
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Customer Name"), customerName);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Gender"), gender);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Birthdate"), dateOfBirth);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Address"), address);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "City"), city);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "State"), state);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Pin"), pinNumber);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Mobile No."), phoneNumber);
+        Assert.assertEquals(homePage.getInfoValueByText(customerInfo, "Email"), email);
     }
 }
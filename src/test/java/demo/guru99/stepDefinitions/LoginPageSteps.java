@@ -1,5 +1,6 @@
 package demo.guru99.stepDefinitions;
 
+import commons.ScenarioState;
 import cucumber.api.java.en.And;
 import cucumber.api.java.en.Then;
 import cucumberOptions.Hooks;
@@ -20,25 +21,26 @@ public class LoginPageSteps {
     }
     @Then("^Enter to Username textbox$")
     public void input_to_Username_textbox() {
-       loginPage.inputToUserIDTextbox(RegisterPageSteps.userID);
+       loginPage.inputToUserIDTextbox(ScenarioState.<String>get(ScenarioState.MANAGER_USER_ID));
     }
 
     @Then("^Enter to Password textbox$")
     public void input_to_password_textbox() {
-        loginPage.inputToPasswordTextbox(RegisterPageSteps.password);
+        loginPage.inputToPasswordTextbox(ScenarioState.<String>get(ScenarioState.MANAGER_PASSWORD));
     }
 
     @Then("^Click on Login button$")
     public void click_on_login_button() {
         loginPage.clickOnLoginButton();
+        homePage = PageGeneratorManager.getHomePage(driver);
     }
 
     @And("^Successful page is displayed$")
     public void successfulPageIsDisplayed() {
 //        Assert.assertTrue(homePage.isSuccessfulMessageDisplayed(driver, "Welcome To Manager's Page of Guru99 Bank"));
         Assert.assertEquals(homePage.getSuccessfulMessageDisplayed(), "Welcome To Manager's Page of Guru99 Bank");
-//        Assert.assertTrue(homePage.isUserIDDisplayed(driver, "Manger Id : " + RegisterPageSteps.userID));
-        Assert.assertEquals(homePage.getUserIDMessageDisplayed(), "Manger Id : " + RegisterPageSteps.userID);
+//        Assert.assertTrue(homePage.isUserIDDisplayed(driver, "Manger Id : " + ScenarioState.get(ScenarioState.MANAGER_USER_ID)));
+        Assert.assertEquals(homePage.getUserIDMessageDisplayed(), "Manger Id : " + ScenarioState.get(ScenarioState.MANAGER_USER_ID));
     }
 
 }
@@ -1,6 +1,7 @@
 package demo.guru99.stepDefinitions;
 
 import commons.DataUtil;
+import commons.ScenarioState;
 import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
 import cucumberOptions.Hooks;
@@ -10,6 +11,8 @@ import pageObjects.LoginPageObject;
 import pageObjects.PageGeneratorManager;
 import pageObjects.RegisterPageObject;
 
+import java.util.Map;
+
     public class RegisterPageSteps {
     WebDriver driver;
     RegisterPageObject registerPage;
@@ -17,7 +20,7 @@ import pageObjects.RegisterPageObject;
     LoginPageObject loginPage;
     DataUtil dataFaker;
     String email;
-    static String userID, password;
+    Map<String, String> accessDetails;
 
     public RegisterPageSteps() {
         this.driver = Hooks.openAndQuitBrowser();
@@ -53,13 +56,17 @@ import pageObjects.RegisterPageObject;
 
         @Then("^Get UserID info$")
         public void get_userid_info() {
-        userID = registerPage.getUsernameInformation();
+        accessDetails = registerPage.getAccessDetails();
+        ScenarioState.put(ScenarioState.MANAGER_USER_ID, registerPage.getUsernameInformation(accessDetails));
 
         }
 
         @Then("^Get Password info$")
         public void get_password_info() {
-        password = registerPage.getPasswordInformation();
+        if (accessDetails == null) {
+            accessDetails = registerPage.getAccessDetails();
+        }
+        ScenarioState.put(ScenarioState.MANAGER_PASSWORD, registerPage.getPasswordInformation(accessDetails));
 
         }
         @Then("^Open Login Page again$")